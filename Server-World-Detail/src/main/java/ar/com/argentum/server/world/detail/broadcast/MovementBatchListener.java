@@ -0,0 +1,35 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.broadcast;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a listener which receives the movement batch of every observer once per tick.
+ */
+public interface MovementBatchListener {
+    /**
+     * Called once per tick for every observer with any movement within its area of interest.
+     * <p>
+     * The listener owns the batch, and must give it back to the {@linkplain MovementBufferPool} once written.
+     *
+     * @param observer the identifier of the observer entity.
+     * @param batch    the encoded batch, ready to be read.
+     */
+    void onMovementBatch(int observer, ByteBuffer batch);
+}
@@ -0,0 +1,409 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.broadcast;
+
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that aggregates the movement of every entity during a tick, and
+ * encodes a single batch per observer with every movement within its area of interest.
+ * <p>
+ * Every entity whose position, heading or moving state differs from its last broadcast state is collected into a
+ * primitive buffer, and grouped by cell of {@linkplain #CELL_LENGTH} tiles. At the end of the tick, the movement(s)
+ * of every cell are encoded once into a block:
+ * <ul>
+ * <li>The number of movement(s), as a variable-length integer.</li>
+ * <li>For every movement, in ascending entity order: the difference with the previous entity as a variable-length
+ * integer, a byte with the x and y of the entity within the cell, and a byte with the heading and moving state.</li>
+ * </ul>
+ * The batch of an observer is the number of block(s) as a variable-length integer, followed by every block of the
+ * cell(s) overlapping its area of interest, each preceded by a byte with the x and a byte with the y delta from the
+ * cell of the observer. Since blocks are shared, a batch includes the movement(s) of the whole cell(s) (and the
+ * movement of the observer itself). Entering or leaving the area of interest without moving is not part of a batch.
+ */
+public final class MovementBroadcastSystem extends IteratingSystem {
+    /**
+     * Define the length (in tiles) of a cell.
+     */
+    public final static int CELL_LENGTH = 8;
+
+    /**
+     * Define the maximum radius (in tiles) of the area of interest, so that every cell delta fits a byte.
+     */
+    public final static int MAXIMUM_RADIUS = Byte.MAX_VALUE;
+
+    /**
+     * Define the maximum number of byte(s) of a variable-length integer.
+     */
+    public final static int MAXIMUM_VAR_INT_LENGTH = 5;
+
+    /**
+     * Define the maximum number of byte(s) of a movement within a block.
+     */
+    public final static int MAXIMUM_MOVEMENT_LENGTH = MAXIMUM_VAR_INT_LENGTH + 2;
+
+    /**
+     * Define the number of bit(s) for shifting world coordinates into cell coordinates.
+     */
+    private final static int CELL_SHIFT = 3;
+
+    /**
+     * Define the mask for retrieving coordinates within a cell from world coordinates.
+     */
+    private final static int CELL_MASK = CELL_LENGTH - 1;
+
+    /**
+     * Define the number of integer(s) per movement within the buffer.
+     */
+    private final static int MOVEMENT_STRIDE = 4;
+
+    /**
+     * Define the number of integer(s) per entity within the broadcast state(s).
+     */
+    private final static int STATE_STRIDE = 3;
+
+    /**
+     * Represent an entity without a broadcast state.
+     */
+    private final static int NO_STATE = -1;
+
+    private final Aspect.Builder mObserverAspect;
+    private final MovementBufferPool mPool;
+    private final MovementBatchListener mListener;
+    private final int mRadius;
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private EntitySubscription mObservers;
+    private int[] mStates = new int[64 * STATE_STRIDE];
+    private int[] mMovements = new int[64 * MOVEMENT_STRIDE];
+    private long[] mMovementCells = new long[64];
+    private long[] mKeys = new long[64];
+    private int mMovementCount;
+    private long[] mCells = new long[64];
+    private int[] mBlockOffsets = new int[65];
+    private int mCellCount;
+    private ByteBuffer mBlocks = ByteBuffer.allocate(64 * MAXIMUM_MOVEMENT_LENGTH);
+    private int[] mSelection = new int[64];
+    private long mBatches;
+    private long mEncodedBytes;
+
+    /**
+     * Constructor for {@link MovementBroadcastSystem}.
+     *
+     * @param observers the aspect of every observer, which must require a {@linkplain PositionComponent}.
+     * @param radius    the radius (in tiles) of the area of interest of every observer.
+     * @param pool      the pool of every encoded batch.
+     * @param listener  the listener of every encoded batch.
+     */
+    public MovementBroadcastSystem(Aspect.Builder observers, int radius,
+                                   MovementBufferPool pool, MovementBatchListener listener) {
+        super(Aspect.all(PositionComponent.class, PositionMovemenetComponent.class));
+
+        if (radius < 0 || radius > MAXIMUM_RADIUS) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAXIMUM_RADIUS + ".");
+        }
+        this.mObserverAspect = observers;
+        this.mRadius = radius;
+        this.mPool = pool;
+        this.mListener = listener;
+
+        Arrays.fill(mStates, NO_STATE);
+    }
+
+    /**
+     * Retrieves the number of batch(es) encoded.
+     *
+     * @return the number of batch(es) encoded.
+     */
+    public long getBatches() {
+        return mBatches;
+    }
+
+    /**
+     * Retrieves the number of byte(s) encoded within every batch.
+     *
+     * @return the number of byte(s) encoded.
+     */
+    public long getEncodedBytes() {
+        return mEncodedBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+        mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+        mObservers = world.getAspectSubscriptionManager().get(mObserverAspect);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void removed(int entity) {
+        if (entity * STATE_STRIDE < mStates.length) {
+            mStates[entity * STATE_STRIDE + 2] = NO_STATE;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void begin() {
+        mMovementCount = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionComponent position = mPositionMapper.get(entity);
+        final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+        final int x = position.getX();
+        final int y = position.getY();
+        final int state = (movement.getHeading().ordinal() << 1) | (movement.isMoving() ? 1 : 0);
+        final int index = entity * STATE_STRIDE;
+
+        if (index >= mStates.length) {
+            final int length = mStates.length;
+            mStates = Arrays.copyOf(mStates, Math.max(length << 1, index + STATE_STRIDE));
+            Arrays.fill(mStates, length, mStates.length, NO_STATE);
+        }
+        if (mStates[index] == x && mStates[index + 1] == y && mStates[index + 2] == state) {
+            return;
+        }
+        mStates[index] = x;
+        mStates[index + 1] = y;
+        mStates[index + 2] = state;
+
+        if (mMovementCount == mKeys.length) {
+            mMovementCells = Arrays.copyOf(mMovementCells, mMovementCount << 1);
+            mKeys = Arrays.copyOf(mKeys, mMovementCount << 1);
+            mMovements = Arrays.copyOf(mMovements, (mMovementCount << 1) * MOVEMENT_STRIDE);
+        }
+
+        final int offset = mMovementCount * MOVEMENT_STRIDE;
+
+        mMovements[offset] = entity;
+        mMovements[offset + 1] = x;
+        mMovements[offset + 2] = y;
+        mMovements[offset + 3] = state;
+        mMovementCells[mMovementCount] = getCell(x >> CELL_SHIFT, y >> CELL_SHIFT);
+        mMovementCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void end() {
+        if (mMovementCount == 0) {
+            return;
+        }
+        encodeBlocks();
+
+        final IntBag observers = mObservers.getEntities();
+        final int[] data = observers.getData();
+
+        for (int i = 0, j = observers.size(); i < j; i++) {
+            encodeBatch(data[i]);
+        }
+    }
+
+    /**
+     * Sort every movement of the tick by cell and entity, and encodes the block of every cell.
+     * <p>
+     * A cell does not fit a sort key along with the index of a movement, so every distinct cell is sorted first and
+     * every movement is sorted by the rank of its cell.
+     */
+    private void encodeBlocks() {
+        if (mMovementCount + 1 > mBlockOffsets.length) {
+            mCells = new long[mKeys.length];
+            mBlockOffsets = new int[mKeys.length + 1];
+        }
+        System.arraycopy(mMovementCells, 0, mCells, 0, mMovementCount);
+        Arrays.sort(mCells, 0, mMovementCount);
+        mCellCount = 0;
+
+        for (int i = 0; i < mMovementCount; i++) {
+            if (mCellCount == 0 || mCells[mCellCount - 1] != mCells[i]) {
+                mCells[mCellCount++] = mCells[i];
+            }
+        }
+        for (int i = 0; i < mMovementCount; i++) {
+            mKeys[i] = ((long) Arrays.binarySearch(mCells, 0, mCellCount, mMovementCells[i]) << 32) | i;
+        }
+        Arrays.sort(mKeys, 0, mMovementCount);
+
+        if (mBlocks.capacity() < mMovementCount * (MAXIMUM_VAR_INT_LENGTH + MAXIMUM_MOVEMENT_LENGTH)) {
+            mBlocks = ByteBuffer.allocate(mKeys.length * (MAXIMUM_VAR_INT_LENGTH + MAXIMUM_MOVEMENT_LENGTH));
+        }
+        mBlocks.clear();
+
+        for (int first = 0, last; first < mMovementCount; first = last) {
+            final int cell = (int) (mKeys[first] >> 32);
+
+            for (last = first + 1; last < mMovementCount && (int) (mKeys[last] >> 32) == cell; last++) {
+                // Find the first movement of the next cell.
+            }
+            mBlockOffsets[cell] = mBlocks.position();
+
+            putVarInt(mBlocks, last - first);
+
+            for (int i = first, previous = 0; i < last; i++) {
+                final int offset = (int) mKeys[i] * MOVEMENT_STRIDE;
+                final int entity = mMovements[offset];
+
+                putVarInt(mBlocks, entity - previous);
+                mBlocks.put((byte) ((mMovements[offset + 1] & CELL_MASK)
+                        | ((mMovements[offset + 2] & CELL_MASK) << CELL_SHIFT)));
+                mBlocks.put((byte) mMovements[offset + 3]);
+                previous = entity;
+            }
+        }
+        mBlockOffsets[mCellCount] = mBlocks.position();
+    }
+
+    /**
+     * Encodes the batch of the given observer from every block overlapping its area of interest, and gives it to
+     * the listener.
+     *
+     * @param observer the identifier of the observer entity.
+     */
+    private void encodeBatch(int observer) {
+        final PositionComponent position = mPositionMapper.get(observer);
+        final int x = position.getX();
+        final int y = position.getY();
+        final int originX = x >> CELL_SHIFT;
+        final int originY = y >> CELL_SHIFT;
+        int count = 0;
+        int length = MAXIMUM_VAR_INT_LENGTH;
+
+        for (int cellY = (y - mRadius) >> CELL_SHIFT; cellY <= (y + mRadius) >> CELL_SHIFT; cellY++) {
+            final int first = getFirst(getCell((x - mRadius) >> CELL_SHIFT, cellY));
+            final int last = getFirst(getCell(((x + mRadius) >> CELL_SHIFT) + 1, cellY));
+
+            for (int i = first; i < last; i++) {
+                if (count == mSelection.length) {
+                    mSelection = Arrays.copyOf(mSelection, count << 1);
+                }
+                mSelection[count++] = i;
+                length += 2 + mBlockOffsets[i + 1] - mBlockOffsets[i];
+            }
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        final ByteBuffer buffer = mPool.obtain(length);
+        final byte[] blocks = mBlocks.array();
+
+        putVarInt(buffer, count);
+
+        for (int i = 0; i < count; i++) {
+            final int cell = mSelection[i];
+
+            buffer.put((byte) (getCellX(mCells[cell]) - originX));
+            buffer.put((byte) (getCellY(mCells[cell]) - originY));
+            buffer.put(blocks, mBlockOffsets[cell], mBlockOffsets[cell + 1] - mBlockOffsets[cell]);
+        }
+        buffer.flip();
+
+        mBatches++;
+        mEncodedBytes += buffer.remaining();
+        mListener.onMovementBatch(observer, buffer);
+    }
+
+    /**
+     * Retrieves the index of the first encoded cell equal or after the given cell.
+     *
+     * @param cell the cell to search.
+     *
+     * @return the index of the cell, or the index of the next cell if the cell has no movement.
+     */
+    private int getFirst(long cell) {
+        final int index = Arrays.binarySearch(mCells, 0, mCellCount, cell);
+
+        return index < 0 ? -index - 1 : index;
+    }
+
+    /**
+     * Retrieves the cell of the given cell coordinates, ordered by row and then by column.
+     * <p>
+     * The sign bit of the x coordinates is flipped, so that every coordinate (including negative one(s)) keeps its
+     * order within the row.
+     *
+     * @param x the x coordinates (in cell coordinates).
+     * @param y the y coordinates (in cell coordinates).
+     *
+     * @return a number that identify the cell.
+     */
+    private static long getCell(int x, int y) {
+        return ((long) y << 32) | ((x ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retrieves the x coordinates of the given cell.
+     *
+     * @param cell the number that identify the cell.
+     *
+     * @return the x coordinates (in cell coordinates).
+     */
+    private static int getCellX(long cell) {
+        return (int) cell ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Retrieves the y coordinates of the given cell.
+     *
+     * @param cell the number that identify the cell.
+     *
+     * @return the y coordinates (in cell coordinates).
+     */
+    private static int getCellY(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    /**
+     * Write the given value as a variable-length integer, seven bit(s) per byte.
+     *
+     * @param buffer the buffer where to write.
+     * @param value  the value (treated as unsigned).
+     */
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.broadcast;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encapsulate a bounded pool of {@linkplain ByteBuffer}(s) of a fixed capacity, so that encoding a batch in steady
+ * state does not allocate.
+ * <p>
+ * A request bigger than the capacity of the pool is always allocated, and never kept when given back.
+ */
+public final class MovementBufferPool {
+    private final ByteBuffer[] mBuffers;
+    private final int mBufferCapacity;
+    private int mSize;
+    private long mHits;
+    private long mMisses;
+
+    /**
+     * Constructor for {@link MovementBufferPool}.
+     *
+     * @param capacity       the maximum number of buffer(s) kept by the pool.
+     * @param bufferCapacity the capacity (in bytes) of every pooled buffer.
+     */
+    public MovementBufferPool(int capacity, int bufferCapacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Pool capacity cannot be negative.");
+        }
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive.");
+        }
+        this.mBuffers = new ByteBuffer[capacity];
+        this.mBufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Retrieves a cleared buffer that can hold at least the given number of byte(s).
+     *
+     * @param length the number of byte(s) required.
+     *
+     * @return a buffer in little-endian order.
+     */
+    public synchronized ByteBuffer obtain(int length) {
+        if (length > mBufferCapacity) {
+            mMisses++;
+            return allocate(length);
+        }
+        if (mSize == 0) {
+            mMisses++;
+            return allocate(mBufferCapacity);
+        }
+        mHits++;
+
+        final ByteBuffer buffer = mBuffers[--mSize];
+        mBuffers[mSize] = null;
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Gives back a buffer to the pool, the buffer must not be used afterward.
+     *
+     * @param buffer the buffer to give back.
+     */
+    public synchronized void free(ByteBuffer buffer) {
+        if (mSize < mBuffers.length && buffer.capacity() == mBufferCapacity) {
+            mBuffers[mSize++] = buffer;
+        }
+    }
+
+    /**
+     * Retrieves the number of buffer(s) held by the pool.
+     *
+     * @return the number of buffer(s) held by the pool.
+     */
+    public synchronized int getSize() {
+        return mSize;
+    }
+
+    /**
+     * Retrieves the number of buffer(s) reused by the pool.
+     *
+     * @return the number of buffer(s) reused.
+     */
+    public synchronized long getHits() {
+        return mHits;
+    }
+
+    /**
+     * Retrieves the number of buffer(s) allocated by the pool.
+     *
+     * @return the number of buffer(s) allocated.
+     */
+    public synchronized long getMisses() {
+        return mMisses;
+    }
+
+    /**
+     * Allocates a buffer in little-endian order.
+     *
+     * @param capacity the capacity of the buffer.
+     *
+     * @return a new buffer.
+     */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,373 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.entity;
+
+import ar.com.argentum.server.world.entity.Alignment;
+import ar.com.argentum.server.world.entity.Gender;
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.Race;
+import ar.com.argentum.server.world.entity.Religion;
+import ar.com.argentum.server.world.entity.component.CharacterComponent;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import com.artemis.ComponentMapper;
+import com.artemis.World;
+import com.artemis.utils.IntBag;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encapsulate a binary codec for the {@linkplain com.artemis.Component}(s) of an {@linkplain com.artemis.Entity}.
+ * <p>
+ * Enumerations are written by their ordinal and definitions ({@linkplain Race}, {@linkplain Religion}) by their
+ * interned identifier, so encoding many entities into the same buffer does not allocate.
+ * <p>
+ * Every entity record starts with a byte of flag(s) for the component(s) it contains, followed by:
+ * <ul>
+ * <li>{@linkplain PositionComponent}: the x and y coordinates as integers.</li>
+ * <li>{@linkplain PositionMovemenetComponent}: the heading ordinal and the moving property as bytes.</li>
+ * <li>{@linkplain CharacterComponent} (since version 2): the race identifier as a short, the gender and alignment
+ * ordinal(s) as bytes, and the religion identifier as a short.</li>
+ * </ul>
+ */
+public final class ComponentCodec {
+    /**
+     * Define the version of the schema written by the codec.
+     */
+    public final static int SCHEMA_VERSION = 2;
+
+    /**
+     * Define the oldest version of the schema read by the codec.
+     */
+    public final static int MINIMUM_SCHEMA_VERSION = 1;
+
+    /**
+     * Define the number of byte(s) of the header.
+     */
+    public final static int HEADER_LENGTH = 2 + 4;
+
+    /**
+     * Define the maximum number of byte(s) of an entity record.
+     */
+    public final static int RECORD_LENGTH = 1 + 4 + 4 + 1 + 1 + 2 + 1 + 1 + 2;
+
+    /**
+     * Represent the identifier of an absent definition.
+     */
+    public final static int NO_IDENTIFIER = 0xFFFF;
+
+    private final static int FLAG_POSITION = 1;
+    private final static int FLAG_MOVEMENT = 1 << 1;
+    private final static int FLAG_CHARACTER = 1 << 2;
+    private final static int FLAG_MOVING = 1;
+
+    private final World mWorld;
+    private final ComponentMapper<PositionComponent> mPositionMapper;
+    private final ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private final ComponentMapper<CharacterComponent> mCharacterMapper;
+    private final ImmutableList<Race> mRaces;
+    private final ImmutableList<Religion> mReligions;
+    private final ObjectIntHashMap<String> mRaceIdentifiers;
+    private final ObjectIntHashMap<String> mReligionIdentifiers;
+
+    /**
+     * Constructor for {@link ComponentCodec}.
+     *
+     * @param world     the world that owns every entity.
+     * @param races     a list that contain(s) every race, the index is used as the interned identifier.
+     * @param religions a list that contain(s) every religion, the index is used as the interned identifier.
+     */
+    public ComponentCodec(World world, ImmutableList<Race> races, ImmutableList<Religion> religions) {
+        if (races.size() >= NO_IDENTIFIER || religions.size() >= NO_IDENTIFIER) {
+            throw new IllegalArgumentException("Too many definitions to be interned.");
+        }
+        this.mWorld = world;
+        this.mPositionMapper = world.getMapper(PositionComponent.class);
+        this.mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+        this.mCharacterMapper = world.getMapper(CharacterComponent.class);
+        this.mRaces = races;
+        this.mReligions = religions;
+        this.mRaceIdentifiers = new ObjectIntHashMap<>(races.size());
+        this.mReligionIdentifiers = new ObjectIntHashMap<>(religions.size());
+
+        races.forEachWithIndex((race, index) -> mRaceIdentifiers.put(race.getName(), index));
+        religions.forEachWithIndex((religion, index) -> mReligionIdentifiers.put(religion.getName(), index));
+    }
+
+    /**
+     * Retrieves the number of byte(s) required to encode the given number of entities.
+     *
+     * @param count the number of entities.
+     *
+     * @return the maximum number of byte(s) required.
+     */
+    public static int getEncodedLength(int count) {
+        return HEADER_LENGTH + count * RECORD_LENGTH;
+    }
+
+    /**
+     * Encodes the given entities into the given buffer.
+     *
+     * @param entities the identifier of every entity to encode.
+     * @param buffer   the buffer to write into.
+     */
+    public void encode(IntBag entities, ByteBuffer buffer) {
+        final int[] data = entities.getData();
+        final int size = entities.size();
+
+        buffer.putShort((short) SCHEMA_VERSION);
+        buffer.putInt(size);
+
+        for (int i = 0; i < size; i++) {
+            encode(data[i], buffer);
+        }
+    }
+
+    /**
+     * Encodes the {@linkplain com.artemis.Component}(s) of the given entity into the given buffer.
+     *
+     * @param entity the identifier of the entity.
+     * @param buffer the buffer to write into.
+     */
+    public void encode(int entity, ByteBuffer buffer) {
+        final PositionComponent position = mPositionMapper.getSafe(entity);
+        final PositionMovemenetComponent movement = mMovementMapper.getSafe(entity);
+        final CharacterComponent character = mCharacterMapper.getSafe(entity);
+
+        buffer.put((byte) ((position != null ? FLAG_POSITION : 0)
+                | (movement != null ? FLAG_MOVEMENT : 0)
+                | (character != null ? FLAG_CHARACTER : 0)));
+
+        if (position != null) {
+            buffer.putInt(position.getX());
+            buffer.putInt(position.getY());
+        }
+        if (movement != null) {
+            writeHeading(buffer, movement.getHeading());
+            buffer.put((byte) (movement.isMoving() ? FLAG_MOVING : 0));
+        }
+        if (character != null) {
+            writeRace(buffer, character.getRace());
+            writeGender(buffer, character.getGender());
+            writeAlignment(buffer, character.getAlignment());
+            writeReligion(buffer, character.getReligion());
+        }
+    }
+
+    /**
+     * Decodes every entity from the given buffer, creating them in the world.
+     *
+     * @param buffer   the buffer to read from.
+     * @param entities the bag where the identifier of every created entity is added.
+     */
+    public void decode(ByteBuffer buffer, IntBag entities) {
+        final int version = buffer.getShort() & 0xFFFF;
+
+        if (version < MINIMUM_SCHEMA_VERSION || version > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported schema version " + version);
+        }
+
+        final int size = buffer.getInt();
+        entities.ensureCapacity(entities.size() + size);
+
+        for (int i = 0; i < size; i++) {
+            final int entity = mWorld.create();
+            decode(buffer, entity);
+            entities.add(entity);
+        }
+    }
+
+    /**
+     * Decodes the {@linkplain com.artemis.Component}(s) of an entity from the given buffer.
+     *
+     * @param buffer the buffer to read from.
+     * @param entity the identifier of the entity.
+     */
+    public void decode(ByteBuffer buffer, int entity) {
+        final int flags = buffer.get();
+
+        if ((flags & FLAG_POSITION) != 0) {
+            final int x = buffer.getInt();
+            final int y = buffer.getInt();
+            final PositionComponent position = mPositionMapper.getSafe(entity);
+
+            if (position == null) {
+                mWorld.edit(entity).add(new PositionComponent(x, y));
+            } else {
+                position.set(x, y);
+            }
+        }
+        if ((flags & FLAG_MOVEMENT) != 0) {
+            final Heading heading = readHeading(buffer);
+            final boolean isMoving = (buffer.get() & FLAG_MOVING) != 0;
+            PositionMovemenetComponent movement = mMovementMapper.getSafe(entity);
+
+            if (movement == null) {
+                movement = new PositionMovemenetComponent(heading);
+                mWorld.edit(entity).add(movement);
+            } else {
+                movement.setHeading(heading);
+            }
+            movement.setMoving(isMoving);
+        }
+        if ((flags & FLAG_CHARACTER) != 0) {
+            final Race race = readRace(buffer);
+            final Gender gender = readGender(buffer);
+            final Alignment alignment = readAlignment(buffer);
+            final Religion religion = readReligion(buffer);
+            CharacterComponent character = mCharacterMapper.getSafe(entity);
+
+            if (character == null) {
+                character = mWorld.edit(entity).create(CharacterComponent.class);
+            }
+            character.setRace(race);
+            character.setGender(gender);
+            character.setAlignment(alignment);
+            character.setReligion(religion);
+        }
+    }
+
+    /**
+     * Writes the given {@linkplain Heading} into the buffer.
+     *
+     * @param buffer  the buffer to write into.
+     * @param heading the heading to write.
+     */
+    public static void writeHeading(ByteBuffer buffer, Heading heading) {
+        buffer.put((byte) heading.ordinal());
+    }
+
+    /**
+     * Reads a {@linkplain Heading} from the buffer.
+     *
+     * @param buffer the buffer to read from.
+     *
+     * @return the heading that was read.
+     */
+    public static Heading readHeading(ByteBuffer buffer) {
+        return Heading.getEnumeration(buffer.get());
+    }
+
+    /**
+     * Writes the given {@linkplain Gender} into the buffer.
+     *
+     * @param buffer the buffer to write into.
+     * @param gender the gender to write.
+     */
+    public static void writeGender(ByteBuffer buffer, Gender gender) {
+        buffer.put((byte) gender.ordinal());
+    }
+
+    /**
+     * Reads a {@linkplain Gender} from the buffer.
+     *
+     * @param buffer the buffer to read from.
+     *
+     * @return the gender that was read.
+     */
+    public static Gender readGender(ByteBuffer buffer) {
+        return Gender.getEnumeration(buffer.get());
+    }
+
+    /**
+     * Writes the given {@linkplain Alignment} into the buffer.
+     *
+     * @param buffer    the buffer to write into.
+     * @param alignment the alignment to write.
+     */
+    public static void writeAlignment(ByteBuffer buffer, Alignment alignment) {
+        buffer.put((byte) alignment.ordinal());
+    }
+
+    /**
+     * Reads an {@linkplain Alignment} from the buffer.
+     *
+     * @param buffer the buffer to read from.
+     *
+     * @return the alignment that was read.
+     */
+    public static Alignment readAlignment(ByteBuffer buffer) {
+        return Alignment.getEnumeration(buffer.get());
+    }
+
+    /**
+     * Writes the given {@linkplain Race} into the buffer.
+     *
+     * @param buffer the buffer to write into.
+     * @param race   the race to write (nullable).
+     */
+    public void writeRace(ByteBuffer buffer, Race race) {
+        buffer.putShort((short) (race == null ? NO_IDENTIFIER : getIdentifier(mRaceIdentifiers, race.getName())));
+    }
+
+    /**
+     * Reads a {@linkplain Race} from the buffer.
+     *
+     * @param buffer the buffer to read from.
+     *
+     * @return the race that was read, or null if absent.
+     */
+    public Race readRace(ByteBuffer buffer) {
+        final int identifier = buffer.getShort() & 0xFFFF;
+
+        return identifier == NO_IDENTIFIER ? null : mRaces.get(identifier);
+    }
+
+    /**
+     * Writes the given {@linkplain Religion} into the buffer.
+     *
+     * @param buffer   the buffer to write into.
+     * @param religion the religion to write (nullable).
+     */
+    public void writeReligion(ByteBuffer buffer, Religion religion) {
+        buffer.putShort((short) (religion == null
+                ? NO_IDENTIFIER : getIdentifier(mReligionIdentifiers, religion.getName())));
+    }
+
+    /**
+     * Reads a {@linkplain Religion} from the buffer.
+     *
+     * @param buffer the buffer to read from.
+     *
+     * @return the religion that was read, or null if absent.
+     */
+    public Religion readReligion(ByteBuffer buffer) {
+        final int identifier = buffer.getShort() & 0xFFFF;
+
+        return identifier == NO_IDENTIFIER ? null : mReligions.get(identifier);
+    }
+
+    /**
+     * Retrieves the interned identifier of the given name.
+     *
+     * @param identifiers the table that contain(s) every interned identifier.
+     * @param name        the name of the definition.
+     *
+     * @return the interned identifier of the definition.
+     */
+    private static int getIdentifier(ObjectIntHashMap<String> identifiers, String name) {
+        final int identifier = identifiers.getIfAbsent(name, NO_IDENTIFIER);
+
+        if (identifier == NO_IDENTIFIER) {
+            throw new IllegalArgumentException("Definition '" + name + "' is not registered.");
+        }
+        return identifier;
+    }
+}
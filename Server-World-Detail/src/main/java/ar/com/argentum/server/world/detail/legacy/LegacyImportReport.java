@@ -0,0 +1,121 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.legacy;
+
+import java.io.PrintStream;
+
+/**
+ * Encapsulate the result of a {@linkplain LegacyMapImporter} run.
+ */
+public final class LegacyImportReport {
+    private int mMaps;
+    private long mBytes;
+    private long mBlocked;
+    private long mTriggers;
+    private long mObjects;
+    private long mExits;
+    private long mNpcs;
+    private long mTime;
+
+    /**
+     * Retrieves the number of map(s) imported.
+     *
+     * @return the number of map(s) imported.
+     */
+    public synchronized int getMaps() {
+        return mMaps;
+    }
+
+    /**
+     * Retrieves the number of byte(s) decoded from every file.
+     *
+     * @return the number of byte(s) read.
+     */
+    public synchronized long getBytes() {
+        return mBytes;
+    }
+
+    /**
+     * Retrieves the duration of the import.
+     *
+     * @return the duration of the import (in nanoseconds).
+     */
+    public synchronized long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Retrieves the number of map(s) imported per second.
+     *
+     * @return the throughput of the import (in maps per second).
+     */
+    public synchronized double getMapsPerSecond() {
+        return mTime == 0L ? 0.0D : mMaps * 1e9D / mTime;
+    }
+
+    /**
+     * Retrieves the number of byte(s) decoded per second.
+     *
+     * @return the throughput of the import (in bytes per second).
+     */
+    public synchronized double getBytesPerSecond() {
+        return mTime == 0L ? 0.0D : mBytes * 1e9D / mTime;
+    }
+
+    /**
+     * Prints the report into the given {@linkplain PrintStream}.
+     *
+     * @param stream the stream to print into.
+     */
+    public synchronized void print(PrintStream stream) {
+        stream.printf("maps               : %d%n", mMaps);
+        stream.printf("tiles              : %d%n", (long) mMaps * LegacyMap.MAP_AREA);
+        stream.printf("bytes              : %d%n", mBytes);
+        stream.printf("time               : %.3f ms%n", mTime / 1e6D);
+        stream.printf("throughput         : %.1f maps/s, %.1f MB/s%n", getMapsPerSecond(), getBytesPerSecond() / 1e6D);
+        stream.printf("blocked            : %d%n", mBlocked);
+        stream.printf("triggers           : %d%n", mTriggers);
+        stream.printf("objects            : %d%n", mObjects);
+        stream.printf("exits (skipped)    : %d%n", mExits);
+        stream.printf("npcs (skipped)     : %d%n", mNpcs);
+    }
+
+    /**
+     * Adds the statistic(s) of an imported map.
+     *
+     * @param map the map imported.
+     */
+    synchronized void add(LegacyMap map) {
+        mMaps++;
+        mBytes += map.getBytes();
+        mBlocked += map.getBlocked();
+        mTriggers += map.getTriggers();
+        mObjects += map.getObjects();
+        mExits += map.getExits();
+        mNpcs += map.getNpcs();
+    }
+
+    /**
+     * Changes the duration of the import.
+     *
+     * @param time the duration of the import (in nanoseconds).
+     */
+    synchronized void setTime(long time) {
+        mTime = time;
+    }
+}
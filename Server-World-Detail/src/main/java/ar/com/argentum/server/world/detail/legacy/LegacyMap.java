@@ -0,0 +1,165 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.legacy;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+
+/**
+ * Encapsulate the terrain of a single map of the classic Argentum Online format, decoded by a
+ * {@linkplain LegacyMapReader}.
+ * <p>
+ * Every layer is an array of {@linkplain #MAP_LENGTH} x {@linkplain #MAP_LENGTH} tiles in row-major order, ready to
+ * be written into {@linkplain Chunk}(s).
+ */
+public final class LegacyMap {
+    /**
+     * Define the length of a map (in tiles).
+     */
+    public final static int MAP_LENGTH = 100;
+
+    /**
+     * Define the number of tile(s) of a map.
+     */
+    public final static int MAP_AREA = MAP_LENGTH * MAP_LENGTH;
+
+    /**
+     * Define the number of bit(s) for shifting the trigger of a tile within its property, the bits below are kept
+     * for flags such as {@linkplain Chunk#TILE_PROPERTY_BLOCKED}.
+     */
+    public final static int PROPERTY_TRIGGER_SHIFT = 8;
+
+    private final int[] mTiles = new int[MAP_AREA];
+    private final int[] mItems = new int[MAP_AREA];
+    private final int[] mAmounts = new int[MAP_AREA];
+    private final int[] mProperties = new int[MAP_AREA];
+    private int mBlocked;
+    private int mTriggers;
+    private int mObjects;
+    private int mExits;
+    private int mNpcs;
+    private long mBytes;
+
+    /**
+     * Retrieves the ground graphic of every tile.
+     *
+     * @return an array that contain(s) the tile layer of the map.
+     */
+    public int[] getTiles() {
+        return mTiles;
+    }
+
+    /**
+     * Retrieves the object of every tile.
+     *
+     * @return an array that contain(s) the item layer of the map, zero for a tile without object.
+     */
+    public int[] getItems() {
+        return mItems;
+    }
+
+    /**
+     * Retrieves the amount of the object of every tile.
+     *
+     * @return an array that contain(s) the amount of every object of the map.
+     */
+    public int[] getAmounts() {
+        return mAmounts;
+    }
+
+    /**
+     * Retrieves the property of every tile.
+     *
+     * @return an array that contain(s) the property layer of the map.
+     */
+    public int[] getProperties() {
+        return mProperties;
+    }
+
+    /**
+     * Retrieves the number of blocked tile(s).
+     *
+     * @return the number of tile(s) flagged with {@linkplain Chunk#TILE_PROPERTY_BLOCKED}.
+     */
+    public int getBlocked() {
+        return mBlocked;
+    }
+
+    /**
+     * Retrieves the number of tile(s) with a trigger.
+     *
+     * @return the number of tile(s) with a trigger.
+     */
+    public int getTriggers() {
+        return mTriggers;
+    }
+
+    /**
+     * Retrieves the number of tile(s) with an object.
+     *
+     * @return the number of tile(s) with an object.
+     */
+    public int getObjects() {
+        return mObjects;
+    }
+
+    /**
+     * Retrieves the number of tile exit(s), which are not part of the terrain.
+     *
+     * @return the number of tile(s) that teleport to another map.
+     */
+    public int getExits() {
+        return mExits;
+    }
+
+    /**
+     * Retrieves the number of non-player character(s), which are not part of the terrain.
+     *
+     * @return the number of tile(s) that spawn a non-player character.
+     */
+    public int getNpcs() {
+        return mNpcs;
+    }
+
+    /**
+     * Retrieves the number of byte(s) decoded from the files of the map.
+     *
+     * @return the number of byte(s) read.
+     */
+    public long getBytes() {
+        return mBytes;
+    }
+
+    /**
+     * Changes the statistic(s) of the map.
+     *
+     * @param blocked  the number of blocked tile(s).
+     * @param triggers the number of tile(s) with a trigger.
+     * @param objects  the number of tile(s) with an object.
+     * @param exits    the number of tile exit(s).
+     * @param npcs     the number of non-player character(s).
+     * @param bytes    the number of byte(s) decoded.
+     */
+    void setStatistics(int blocked, int triggers, int objects, int exits, int npcs, long bytes) {
+        this.mBlocked = blocked;
+        this.mTriggers = triggers;
+        this.mObjects = objects;
+        this.mExits = exits;
+        this.mNpcs = npcs;
+        this.mBytes = bytes;
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.legacy;
+
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkLayerInterner;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import ar.com.argentum.server.world.terrain.WorldView;
+import com.gs.collections.impl.list.mutable.FastList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encapsulate an importer of the classic Argentum Online map(s) into the {@linkplain Chunk}(s) of a
+ * {@linkplain ChunkManager}.
+ * <p>
+ * Every map is placed on a grid of {@linkplain LegacyMap#MAP_LENGTH} tiles per map, in map number order. Maps are
+ * decoded in parallel, and every decoded map is written in bulk one layer at a time:
+ * <ul>
+ * <li>The ground graphic into the tile layer, the graphic(s) of the upper layer(s) are only used by the client.</li>
+ * <li>The object into the item layer, with its amount as a stack.</li>
+ * <li>The blocked flag and the trigger into the property layer.</li>
+ * </ul>
+ * Tile exit(s) and non-player character(s) are not part of the terrain, and are only counted.
+ */
+public final class LegacyMapImporter {
+    /**
+     * Define the pattern of the name of a map file, which contains the number of the map.
+     */
+    public final static Pattern MAP_FILE = Pattern.compile("(?i)mapa(\\d+)\\.map");
+
+    /**
+     * Define the extension of the information file of a map.
+     */
+    public final static String INFORMATION_EXTENSION = "inf";
+
+    private final ThreadLocal<LegacyMapReader> mReaders = ThreadLocal.withInitial(LegacyMapReader::new);
+    private final ThreadLocal<LegacyMap> mMaps = ThreadLocal.withInitial(LegacyMap::new);
+    private final ChunkManager mManager;
+    private final WorldView mView;
+    private final int mMapsPerRow;
+
+    /**
+     * Constructor for {@link LegacyMapImporter}.
+     *
+     * @param manager    the manager of every chunk where to import the map(s).
+     * @param mapsPerRow the number of map(s) per row of the grid.
+     */
+    public LegacyMapImporter(ChunkManager manager, int mapsPerRow) {
+        if (mapsPerRow <= 0) {
+            throw new IllegalArgumentException("Number of maps per row must be positive.");
+        }
+        this.mManager = manager;
+        this.mView = new WorldView(manager);
+        this.mMapsPerRow = mapsPerRow;
+    }
+
+    /**
+     * Retrieves the x coordinate of the first tile of the given map.
+     *
+     * @param map the number of the map (starting at one).
+     *
+     * @return the x coordinate of the map (in world coordinates).
+     */
+    public int getOriginX(int map) {
+        return ((map - 1) % mMapsPerRow) * LegacyMap.MAP_LENGTH;
+    }
+
+    /**
+     * Retrieves the y coordinate of the first tile of the given map.
+     *
+     * @param map the number of the map (starting at one).
+     *
+     * @return the y coordinate of the map (in world coordinates).
+     */
+    public int getOriginY(int map) {
+        return ((map - 1) / mMapsPerRow) * LegacyMap.MAP_LENGTH;
+    }
+
+    /**
+     * Imports every map file (and its information file) of the given directory, in parallel.
+     *
+     * @param directory the directory that contain(s) every map.
+     *
+     * @return the report of the import.
+     *
+     * @throws IOException if the directory or any map cannot be read.
+     */
+    public LegacyImportReport importDirectory(Path directory) throws IOException {
+        final FastList<Path> files = FastList.newList();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (MAP_FILE.matcher(file.getFileName().toString()).matches()) {
+                    files.add(file);
+                }
+            }
+        }
+
+        final LegacyImportReport report = new LegacyImportReport();
+        final long start = System.nanoTime();
+
+        try {
+            files.parallelStream().forEach(file -> {
+                try {
+                    importMap(file, report);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        report.setTime(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Imports the given map file, and the information file next to it.
+     *
+     * @param file the map file, which name contains the number of the map.
+     *
+     * @return the report of the import.
+     *
+     * @throws IOException if the map cannot be read.
+     */
+    public LegacyImportReport importMap(Path file) throws IOException {
+        final LegacyImportReport report = new LegacyImportReport();
+        final long start = System.nanoTime();
+
+        importMap(file, report);
+        report.setTime(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Imports the given map file, and the information file next to it.
+     *
+     * @param file   the map file, which name contains the number of the map.
+     * @param report the report where to add the statistic(s) of the map.
+     *
+     * @throws IOException if the map cannot be read.
+     */
+    private void importMap(Path file, LegacyImportReport report) throws IOException {
+        final String name = file.getFileName().toString();
+        final Matcher matcher = MAP_FILE.matcher(name);
+
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Given file is not a legacy map.");
+        }
+
+        final int number = Integer.parseInt(matcher.group(1));
+        final Path information = file.resolveSibling(name.substring(0, name.length() - 3) + INFORMATION_EXTENSION);
+        final LegacyMap map = mMaps.get();
+
+        try (FileChannel mapChannel = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel informationChannel = FileChannel.open(information, StandardOpenOption.READ)) {
+            mReaders.get().read(mapChannel, informationChannel, map);
+        }
+        write(number, map);
+        report.add(map);
+    }
+
+    /**
+     * Writes every layer of the given map into the {@linkplain Chunk}(s) it covers, loading them if required.
+     * <p>
+     * Maps are written one at a time, since neighbour map(s) may share a chunk.
+     *
+     * @param number the number of the map.
+     * @param map    the decoded map.
+     */
+    private synchronized void write(int number, LegacyMap map) {
+        final int x = getOriginX(number);
+        final int y = getOriginY(number);
+        final int last = LegacyMap.MAP_LENGTH - 1;
+
+        for (int chunkY = y >> Chunk.CHUNK_SHIFT; chunkY <= (y + last) >> Chunk.CHUNK_SHIFT; chunkY++) {
+            for (int chunkX = x >> Chunk.CHUNK_SHIFT; chunkX <= (x + last) >> Chunk.CHUNK_SHIFT; chunkX++) {
+                mManager.loadChunk(chunkX, chunkY);
+            }
+        }
+        mView.invalidate();
+
+        mView.write(Chunk.LAYER_TILE, x, y, LegacyMap.MAP_LENGTH, LegacyMap.MAP_LENGTH, map.getTiles());
+        mView.write(Chunk.LAYER_ITEM, x, y, LegacyMap.MAP_LENGTH, LegacyMap.MAP_LENGTH, map.getItems());
+        mView.write(Chunk.LAYER_PROPERTY, x, y, LegacyMap.MAP_LENGTH, LegacyMap.MAP_LENGTH, map.getProperties());
+
+        final int[] items = map.getItems();
+        final int[] amounts = map.getAmounts();
+
+        for (int tile = 0; tile < LegacyMap.MAP_AREA; tile++) {
+            if (items[tile] != 0 && amounts[tile] > 1) {
+                final int tileX = x + tile % LegacyMap.MAP_LENGTH;
+                final int tileY = y + tile / LegacyMap.MAP_LENGTH;
+                final Chunk chunk = mView.getChunkAt(tileX, tileY);
+
+                if (chunk != null) {
+                    chunk.addItem(tileX & Chunk.CHUNK_MASK, tileY & Chunk.CHUNK_MASK, items[tile], amounts[tile] - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the tile, item and property layer(s) of the given {@linkplain Chunk}, including every item stack, into
+     * a chunk that has not been published yet.
+     *
+     * @param source      the chunk to copy from.
+     * @param destination the chunk to copy into, with all layer(s) cleared.
+     */
+    private static void copy(Chunk source, Chunk destination) {
+        final int[] buffer = new int[Chunk.CHUNK_LENGTH];
+
+        for (int layer : new int[]{Chunk.LAYER_TILE, Chunk.LAYER_ITEM, Chunk.LAYER_PROPERTY}) {
+            source.read(layer, 0, 0, Chunk.CHUNK_BIT, Chunk.CHUNK_BIT, buffer, 0, Chunk.CHUNK_BIT);
+            destination.write(layer, 0, 0, Chunk.CHUNK_BIT, Chunk.CHUNK_BIT, buffer, 0, Chunk.CHUNK_BIT);
+        }
+        source.forEachItem(0, 0, Chunk.CHUNK_BIT, Chunk.CHUNK_BIT, (x, y, id, amount) -> {
+            final int missing = amount - destination.getItemAmount(x, y, id);
+
+            if (missing > 0) {
+                destination.addItem(x, y, id, missing);
+            }
+        });
+    }
+
+    /**
+     * Entry point of the importer, which imports every map of a directory into memory and reports the throughput.
+     *
+     * @param arguments the argument(s) of the importer.
+     *
+     * @throws IOException if any map cannot be read.
+     */
+    public static void main(String[] arguments) throws IOException {
+        if (arguments.length == 0) {
+            System.err.println("Usage: LegacyMapImporter <directory> [maps per row] [runs]");
+            return;
+        }
+
+        final Path directory = Paths.get(arguments[0]);
+        final int mapsPerRow = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 16;
+        final int runs = arguments.length > 2 ? Integer.parseInt(arguments[2]) : 3;
+        final DefaultChunkManager staging = new DefaultChunkManager(chunk -> {
+        }, new ChunkPool(0));
+        final LegacyMapImporter importer = new LegacyMapImporter(staging, mapsPerRow);
+
+        for (int run = 1; run <= runs; run++) {
+            System.out.printf("run                : %d%n", run);
+            importer.importDirectory(directory).print(System.out);
+        }
+
+        // The imported chunk(s) are loaded again into the resident manager, which interns the layer(s) of every
+        // chunk once it has been generated from the imported one and before it is published.
+        final ChunkLayerInterner interner = new ChunkLayerInterner(Integer.MAX_VALUE);
+        final DefaultChunkManager manager = new DefaultChunkManager(
+                chunk -> copy(staging.findChunk(chunk.getX(), chunk.getY()), chunk),
+                new ChunkPool(0), null, ChunkLayout.LINEAR, interner);
+        staging.forEachChunk(chunk -> manager.loadChunk(chunk.getX(), chunk.getY()));
+
+        System.out.printf("chunks resident    : %d%n", manager.getChunkStream(false).count());
+        System.out.printf("layers interned    : %d (%d unique)%n", interner.getInterned(), interner.getUnique());
+        System.out.printf("layers deduplicated: %.1f%% (%.2f MB saved)%n",
+                interner.getRatio() * 100.0D, interner.getSavedBytes() / 1e6D);
+    }
+}
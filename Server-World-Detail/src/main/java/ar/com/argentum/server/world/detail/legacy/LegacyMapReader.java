@@ -0,0 +1,243 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.legacy;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Encapsulate a streaming decoder of the classic Argentum Online map format, which reads a map (.map) and its
+ * information (.inf) through NIO channel(s) into a {@linkplain LegacyMap}.
+ * <p>
+ * Both files start with a header and continue with a variable length record per tile, row by row and little-endian:
+ * <ul>
+ * <li>.map: flags, ground graphic, optional graphic(s) of the upper layer(s) and optional trigger.</li>
+ * <li>.inf: flags, optional tile exit, optional non-player character and optional object with its amount.</li>
+ * </ul>
+ * The reader holds a pair of reusable buffer(s) and is not thread safe.
+ */
+public final class LegacyMapReader {
+    /**
+     * Define the length of the header of a map file (version, description, checksum, magic word and reserved).
+     */
+    public final static int MAP_HEADER_LENGTH = 2 + 255 + 4 + 4 + 4 * 2;
+
+    /**
+     * Define the length of the header of an information file.
+     */
+    public final static int INFORMATION_HEADER_LENGTH = 5 * 2;
+
+    /**
+     * Define the flag(s) of a tile within a map file.
+     */
+    private final static int FLAG_BLOCKED = 1;
+    private final static int FLAG_SECOND_LAYER = 1 << 1;
+    private final static int FLAG_THIRD_LAYER = 1 << 2;
+    private final static int FLAG_FOURTH_LAYER = 1 << 3;
+    private final static int FLAG_TRIGGER = 1 << 4;
+
+    /**
+     * Define the flag(s) of a tile within an information file.
+     */
+    private final static int FLAG_EXIT = 1;
+    private final static int FLAG_NPC = 1 << 1;
+    private final static int FLAG_OBJECT = 1 << 2;
+
+    /**
+     * Define the longest record of a tile within any file (an information record with every flag).
+     */
+    private final static int RECORD_LENGTH = 1 + 3 * 2 + 2 + 2 * 2;
+
+    /**
+     * Define the capacity of every buffer.
+     */
+    private final static int BUFFER_CAPACITY = 1 << 15;
+
+    private final ByteBuffer mMapBuffer = createBuffer();
+    private final ByteBuffer mInformationBuffer = createBuffer();
+    private long mBytes;
+
+    /**
+     * Decodes a map and its information into the given {@linkplain LegacyMap}.
+     *
+     * @param map         the channel of the map file.
+     * @param information the channel of the information file.
+     * @param destination the map where to decode both files.
+     *
+     * @throws IOException if any of the files cannot be read or is truncated.
+     */
+    public void read(ReadableByteChannel map, ReadableByteChannel information, LegacyMap destination)
+            throws IOException {
+        final int[] tiles = destination.getTiles();
+        final int[] items = destination.getItems();
+        final int[] amounts = destination.getAmounts();
+        final int[] properties = destination.getProperties();
+        int blocked = 0;
+        int triggers = 0;
+        int objects = 0;
+        int exits = 0;
+        int npcs = 0;
+
+        mBytes = 0L;
+        mMapBuffer.clear().flip();
+        mInformationBuffer.clear().flip();
+
+        skip(map, mMapBuffer, MAP_HEADER_LENGTH);
+        skip(information, mInformationBuffer, INFORMATION_HEADER_LENGTH);
+
+        try {
+            for (int tile = 0; tile < LegacyMap.MAP_AREA; tile++) {
+                final ByteBuffer buffer = require(map, mMapBuffer, RECORD_LENGTH);
+                final int flags = buffer.get();
+                int property = 0;
+
+                tiles[tile] = buffer.getShort() & 0xFFFF;
+
+                if ((flags & FLAG_SECOND_LAYER) != 0) {
+                    buffer.getShort();
+                }
+                if ((flags & FLAG_THIRD_LAYER) != 0) {
+                    buffer.getShort();
+                }
+                if ((flags & FLAG_FOURTH_LAYER) != 0) {
+                    buffer.getShort();
+                }
+                if ((flags & FLAG_TRIGGER) != 0) {
+                    final int trigger = buffer.getShort() & 0xFFFF;
+
+                    if (trigger != 0) {
+                        property = trigger << LegacyMap.PROPERTY_TRIGGER_SHIFT;
+                        triggers++;
+                    }
+                }
+                if ((flags & FLAG_BLOCKED) != 0) {
+                    property |= Chunk.TILE_PROPERTY_BLOCKED;
+                    blocked++;
+                }
+                properties[tile] = property;
+
+                final ByteBuffer record = require(information, mInformationBuffer, RECORD_LENGTH);
+                final int informationFlags = record.get();
+
+                if ((informationFlags & FLAG_EXIT) != 0) {
+                    record.getShort();
+                    record.getShort();
+                    record.getShort();
+                    exits++;
+                }
+                if ((informationFlags & FLAG_NPC) != 0) {
+                    record.getShort();
+                    npcs++;
+                }
+                if ((informationFlags & FLAG_OBJECT) != 0) {
+                    items[tile] = record.getShort() & 0xFFFF;
+                    amounts[tile] = record.getShort() & 0xFFFF;
+                    objects++;
+                } else {
+                    items[tile] = 0;
+                    amounts[tile] = 0;
+                }
+            }
+        } catch (BufferUnderflowException exception) {
+            throw new EOFException("Unexpected end of the tiles of a legacy map");
+        }
+        destination.setStatistics(blocked, triggers, objects, exits, npcs,
+                mBytes - mMapBuffer.remaining() - mInformationBuffer.remaining());
+    }
+
+    /**
+     * Skips the given number of byte(s) of the given channel.
+     *
+     * @param channel the channel to read from.
+     * @param buffer  the buffer of the channel.
+     * @param length  the number of byte(s) to skip.
+     *
+     * @throws IOException if the channel cannot be read or is truncated.
+     */
+    private void skip(ReadableByteChannel channel, ByteBuffer buffer, int length) throws IOException {
+        if (!fill(channel, buffer, length)) {
+            throw new EOFException("Unexpected end of the header of a legacy map");
+        }
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Retrieves the buffer of the given channel, with a complete record of a tile remaining if available.
+     * <p>
+     * The last record of a file may be shorter than the longest record, so reaching the end of the channel is not
+     * an error until a record is decoded past it.
+     *
+     * @param channel the channel to read from.
+     * @param buffer  the buffer of the channel.
+     * @param length  the number of byte(s) required.
+     *
+     * @return the given buffer.
+     *
+     * @throws IOException if the channel cannot be read or is truncated.
+     */
+    private ByteBuffer require(ReadableByteChannel channel, ByteBuffer buffer, int length) throws IOException {
+        if (buffer.remaining() < length) {
+            fill(channel, buffer, length);
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads from the given channel until the given number of byte(s) remain in the buffer.
+     *
+     * @param channel the channel to read from.
+     * @param buffer  the buffer of the channel.
+     * @param length  the number of byte(s) required.
+     *
+     * @return true if the number of byte(s) remain, false if the end of the channel was reached before.
+     *
+     * @throws IOException if the channel cannot be read.
+     */
+    private boolean fill(ReadableByteChannel channel, ByteBuffer buffer, int length) throws IOException {
+        buffer.compact();
+
+        try {
+            while (buffer.position() < length) {
+                final int read = channel.read(buffer);
+
+                if (read < 0) {
+                    return false;
+                }
+                mBytes += read;
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Creates a little-endian buffer for reading a legacy file.
+     *
+     * @return a new direct buffer.
+     */
+    private static ByteBuffer createBuffer() {
+        return ByteBuffer.allocateDirect(BUFFER_CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.procedure.Procedure;
+import com.gs.collections.api.collection.ImmutableCollection;
+
+import java.util.Optional;
+import java.util.Spliterator;
+
+/**
+ * Implementation for {@linkplain ChunkManager} that records every load and unload of the given manager into a
+ * {@linkplain TickRecorder}.
+ */
+public final class RecordingChunkManager implements ChunkManager {
+    private final ChunkManager mManager;
+    private final TickRecorder mRecorder;
+
+    /**
+     * Constructor for {@link RecordingChunkManager}.
+     *
+     * @param manager  the manager to record.
+     * @param recorder the recorder where every load and unload is written.
+     */
+    public RecordingChunkManager(ChunkManager manager, TickRecorder recorder) {
+        this.mManager = manager;
+        this.mRecorder = recorder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isChunkLoaded(int x, int y) {
+        return mManager.isChunkLoaded(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isChunkDisposable(int x, int y) {
+        return mManager.isChunkDisposable(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunk(int x, int y) {
+        return mManager.getChunk(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunk(int x, int y, boolean loadIfUnloaded) {
+        return loadIfUnloaded ? loadChunk(x, y) : mManager.getChunk(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Chunk findChunk(int x, int y) {
+        return mManager.findChunk(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunkAt(int x, int y) {
+        return mManager.getChunkAt(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunkAt(int x, int y, boolean loadIfUnloaded) {
+        return loadIfUnloaded ? loadChunkAt(x, y) : mManager.getChunkAt(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableCollection<Chunk> getAvailableChunks() {
+        return mManager.getAvailableChunks();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableCollection<Chunk> getAvailableChunks(Predicate<Chunk> predicate) {
+        return mManager.getAvailableChunks(predicate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<Chunk> getChunkSpliterator() {
+        return mManager.getChunkSpliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachChunk(Procedure<? super Chunk> procedure) {
+        mManager.forEachChunk(procedure);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> loadChunk(int x, int y) {
+        if (mManager.isChunkLoaded(x, y)) {
+            return mManager.getChunk(x, y);
+        }
+        final Optional<Chunk> chunk = mManager.loadChunk(x, y);
+
+        if (chunk.isPresent()) {
+            mRecorder.recordLoad(x, y);
+        }
+        return chunk;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> loadChunkAt(int x, int y) {
+        return loadChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> unloadChunk(int x, int y) {
+        final Optional<Chunk> chunk = mManager.unloadChunk(x, y);
+
+        if (chunk.isPresent()) {
+            mRecorder.recordUnload(x, y);
+        }
+        return chunk;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> unloadChunkAt(int x, int y) {
+        return unloadChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+}
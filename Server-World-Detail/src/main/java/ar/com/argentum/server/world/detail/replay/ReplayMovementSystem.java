@@ -0,0 +1,87 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.WorldView;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that moves every moving entity one tile toward its
+ * {@linkplain Heading}, unless the destination is blocked.
+ */
+public final class ReplayMovementSystem extends IteratingSystem {
+    private final ChunkManager mManager;
+    private final WorldView mView;
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+
+    /**
+     * Constructor for {@link ReplayMovementSystem}.
+     *
+     * @param manager the manager of every chunk of the world.
+     */
+    public ReplayMovementSystem(ChunkManager manager) {
+        super(Aspect.all(PositionComponent.class, PositionMovemenetComponent.class));
+        this.mManager = manager;
+        this.mView = new WorldView(manager);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+        mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+
+        if (!movement.isMoving()) {
+            return;
+        }
+
+        final PositionComponent position = mPositionMapper.get(entity);
+        final Heading heading = movement.getHeading();
+        final int x = position.getX() + (heading == Heading.EAST ? 1 : heading == Heading.WEST ? -1 : 0);
+        final int y = position.getY() + (heading == Heading.SOUTH ? 1 : heading == Heading.NORTH ? -1 : 0);
+        Chunk chunk = mView.getChunkAt(x, y);
+
+        if (chunk == null) {
+            chunk = mManager.loadChunkAt(x, y).orElse(null);
+        }
+
+        if (chunk != null && !chunk.isBlocked(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK)) {
+            position.setX(x);
+            position.setY(y);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Encapsulate the result of a {@linkplain TickReplayer} run.
+ */
+public final class ReplayReport {
+    /**
+     * Define the number of slowest tick(s) printed.
+     */
+    private final static int SLOWEST_TICKS = 10;
+
+    private final long[] mTickTimes;
+    private final long mRecordedChanges;
+    private final long mReplayedChanges;
+    private final long mMismatches;
+
+    /**
+     * Constructor for {@link ReplayReport}.
+     *
+     * @param tickTimes       the duration of every replayed tick (in nanoseconds), ordered by tick.
+     * @param recordedChanges the number of chunk change(s) recorded as the output(s) of a tick.
+     * @param replayedChanges the number of chunk change(s) dispatched by the replayed tick(s).
+     * @param mismatches      the number of recorded output(s) that differ from the replayed chunk(s), and of
+     *                        recorded input(s) of an unknown entity.
+     */
+    public ReplayReport(long[] tickTimes, long recordedChanges, long replayedChanges, long mismatches) {
+        this.mTickTimes = tickTimes;
+        this.mRecordedChanges = recordedChanges;
+        this.mReplayedChanges = replayedChanges;
+        this.mMismatches = mismatches;
+    }
+
+    /**
+     * Retrieves the number of replayed tick(s).
+     *
+     * @return the number of tick(s).
+     */
+    public int getTicks() {
+        return mTickTimes.length;
+    }
+
+    /**
+     * Retrieves the duration of the given tick.
+     *
+     * @param tick the index of the tick.
+     *
+     * @return the duration of the tick (in nanoseconds).
+     */
+    public long getTickTime(int tick) {
+        return mTickTimes[tick];
+    }
+
+    /**
+     * Retrieves the number of chunk change(s) recorded as the output(s) of a tick.
+     *
+     * @return the number of recorded change(s).
+     */
+    public long getRecordedChanges() {
+        return mRecordedChanges;
+    }
+
+    /**
+     * Retrieves the number of chunk change(s) dispatched by the replayed tick(s).
+     *
+     * @return the number of replayed change(s).
+     */
+    public long getReplayedChanges() {
+        return mReplayedChanges;
+    }
+
+    /**
+     * Retrieves the number of recorded output(s) that differ from the replayed chunk(s).
+     *
+     * @return the number of mismatch(es).
+     */
+    public long getMismatches() {
+        return mMismatches;
+    }
+
+    /**
+     * Print the report into the given stream.
+     *
+     * @param stream the stream to print into.
+     */
+    public void print(PrintStream stream) {
+        final long[] sorted = mTickTimes.clone();
+        Arrays.sort(sorted);
+
+        stream.printf("ticks              : %d%n", sorted.length);
+        stream.printf("changes recorded   : %d%n", mRecordedChanges);
+        stream.printf("changes replayed   : %d%n", mReplayedChanges);
+        stream.printf("mismatches         : %d%n", mMismatches);
+
+        if (sorted.length == 0) {
+            return;
+        }
+        stream.printf("tick p50           : %.3f ms%n", sorted[(sorted.length - 1) / 2] / 1e6D);
+        stream.printf("tick p99           : %.3f ms%n", sorted[(int) Math.ceil(sorted.length * 0.99D) - 1] / 1e6D);
+        stream.printf("tick max           : %.3f ms%n", sorted[sorted.length - 1] / 1e6D);
+
+        final long threshold = sorted[Math.max(0, sorted.length - SLOWEST_TICKS)];
+
+        for (int tick = 0; tick < mTickTimes.length; tick++) {
+            if (mTickTimes[tick] >= threshold) {
+                stream.printf("tick %-13d : %.3f ms%n", tick, mTickTimes[tick] / 1e6D);
+            }
+        }
+    }
+}
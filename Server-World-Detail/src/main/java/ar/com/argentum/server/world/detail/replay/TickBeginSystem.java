@@ -0,0 +1,48 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import com.artemis.BaseSystem;
+
+/**
+ * Implementation for {@linkplain BaseSystem} that dispatches every chunk change made between tick(s), so that a
+ * {@linkplain TickRecorder} records them as input(s) instead of output(s) of the next tick.
+ * <p>
+ * The system must be the first system of the world.
+ */
+public final class TickBeginSystem extends BaseSystem {
+    private final ChunkChangeBus mBus;
+
+    /**
+     * Constructor for {@link TickBeginSystem}.
+     *
+     * @param bus the bus to dispatch before the tick.
+     */
+    public TickBeginSystem(ChunkChangeBus bus) {
+        this.mBus = bus;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void processSystem() {
+        mBus.dispatch();
+    }
+}
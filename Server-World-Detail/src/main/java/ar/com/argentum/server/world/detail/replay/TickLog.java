@@ -0,0 +1,106 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+
+/**
+ * Define the binary format of a tick log written by {@linkplain TickRecorder} and read by
+ * {@linkplain TickReplayer}.
+ * <p>
+ * A log starts with {@linkplain #MAGIC}, {@linkplain #VERSION} and the {@linkplain ChunkLayout} of every recorded
+ * chunk {@code [int magic, short version, byte layout]}, followed by a sequence of record(s). Each record starts with
+ * its operation code, and every record preceding a {@linkplain #OPERATION_TICK} belongs to that tick.
+ */
+final class TickLog {
+    /**
+     * Define the magic number of a tick log.
+     */
+    final static int MAGIC = 0x414F544C;
+
+    /**
+     * Define the version of the format.
+     */
+    final static int VERSION = 3;
+
+    /**
+     * Represent the end of a tick: {@code [int tick]}.
+     */
+    final static byte OPERATION_TICK = 0;
+
+    /**
+     * Represent the creation of an entity: {@code [int entity, int x, int y, byte state]}.
+     */
+    final static byte OPERATION_SPAWN = 1;
+
+    /**
+     * Represent the removal of an entity: {@code [int entity]}.
+     */
+    final static byte OPERATION_DESPAWN = 2;
+
+    /**
+     * Represent a movement intent of an entity: {@code [int entity, byte state]}.
+     */
+    final static byte OPERATION_MOVE = 3;
+
+    /**
+     * Represent the load of a chunk: {@code [int x, int y]}.
+     */
+    final static byte OPERATION_LOAD = 4;
+
+    /**
+     * Represent the unload of a chunk: {@code [int x, int y]}.
+     */
+    final static byte OPERATION_UNLOAD = 5;
+
+    /**
+     * Represent the change of a tile made between tick(s), which is applied by the replay:
+     * {@code [int x, int y, byte layer, short position, int value]}, followed on the item layer by every stack of the
+     * tile {@code [int id, int amount]} and a terminating {@code [int 0]}.
+     */
+    final static byte OPERATION_CHANGE = 6;
+
+    /**
+     * Represent the change of a tile made by a tick, which is verified by the replay: same record as
+     * {@linkplain #OPERATION_CHANGE}.
+     */
+    final static byte OPERATION_RESULT = 7;
+
+    /**
+     * Represent the flag of a moving entity within a state.
+     */
+    final static int STATE_MOVING = 1;
+
+    /**
+     * Retrieves the state of a movement.
+     *
+     * @param heading  the ordinal of the heading.
+     * @param isMoving true if the entity is moving, false otherwise.
+     *
+     * @return the state of the movement.
+     */
+    static int getState(int heading, boolean isMoving) {
+        return (heading << 1) | (isMoving ? STATE_MOVING : 0);
+    }
+
+    /**
+     * Constructor for {@link TickLog}.
+     */
+    private TickLog() {
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkChangeBatch;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkItemProcedure;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkListener;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Represents a recorder which captures, per tick, every input of the world layer into a binary log.
+ * <p>
+ * Chunk changes are captured by registering the recorder into a {@linkplain ChunkChangeBus}, chunk loads by
+ * {@linkplain RecordingChunkManager} and entity movement by {@linkplain TickRecordingSystem}. Changes dispatched by
+ * {@linkplain #recordResults(ChunkChangeBus)} are the output(s) of the tick and only verified by the replay, while any
+ * other change is an input applied by the replay.
+ */
+public final class TickRecorder implements ChunkListener, Closeable {
+    private final DataOutputStream mStream;
+    private final ChunkItemProcedure mStackProcedure = (x, y, id, amount) -> writeStack(id, amount);
+    private boolean mRecordingResults;
+    private int mTick;
+
+    /**
+     * Constructor for {@link TickRecorder}.
+     *
+     * @param stream the stream where the log is written.
+     * @param layout the layout of every recorded chunk, which the replay must use.
+     */
+    public TickRecorder(OutputStream stream, ChunkLayout layout) {
+        this.mStream = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+
+        try {
+            mStream.writeInt(TickLog.MAGIC);
+            mStream.writeShort(TickLog.VERSION);
+            mStream.writeByte(layout.ordinal());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Retrieves the number of tick(s) recorded.
+     *
+     * @return the number of tick(s) recorded.
+     */
+    public int getTicks() {
+        return mTick;
+    }
+
+    /**
+     * Record the end of the current tick.
+     */
+    public synchronized void recordTick() {
+        try {
+            mStream.writeByte(TickLog.OPERATION_TICK);
+            mStream.writeInt(mTick++);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Record every pending change of the given {@linkplain ChunkChangeBus} as the output(s) of the current tick.
+     *
+     * @param bus the bus to dispatch.
+     */
+    public synchronized void recordResults(ChunkChangeBus bus) {
+        mRecordingResults = true;
+
+        try {
+            bus.dispatch();
+        } finally {
+            mRecordingResults = false;
+        }
+    }
+
+    /**
+     * Record the creation of an entity.
+     *
+     * @param entity   the identifier of the entity.
+     * @param x        the x coordinate of the entity (in world coordinates).
+     * @param y        the y coordinate of the entity (in world coordinates).
+     * @param heading  the {@linkplain Heading} of the entity.
+     * @param isMoving true if the entity is moving, false otherwise.
+     */
+    public synchronized void recordSpawn(int entity, int x, int y, Heading heading, boolean isMoving) {
+        try {
+            mStream.writeByte(TickLog.OPERATION_SPAWN);
+            mStream.writeInt(entity);
+            mStream.writeInt(x);
+            mStream.writeInt(y);
+            mStream.writeByte(TickLog.getState(heading.ordinal(), isMoving));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Record the removal of an entity.
+     *
+     * @param entity the identifier of the entity.
+     */
+    public synchronized void recordDespawn(int entity) {
+        try {
+            mStream.writeByte(TickLog.OPERATION_DESPAWN);
+            mStream.writeInt(entity);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Record the movement intent of an entity.
+     *
+     * @param entity   the identifier of the entity.
+     * @param heading  the {@linkplain Heading} of the entity.
+     * @param isMoving true if the entity is moving, false otherwise.
+     */
+    public synchronized void recordMovement(int entity, Heading heading, boolean isMoving) {
+        try {
+            mStream.writeByte(TickLog.OPERATION_MOVE);
+            mStream.writeInt(entity);
+            mStream.writeByte(TickLog.getState(heading.ordinal(), isMoving));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Record the load of a {@linkplain Chunk}.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     */
+    public synchronized void recordLoad(int x, int y) {
+        writeChunk(TickLog.OPERATION_LOAD, x, y);
+    }
+
+    /**
+     * Record the unload of a {@linkplain Chunk}.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     */
+    public synchronized void recordUnload(int x, int y) {
+        writeChunk(TickLog.OPERATION_UNLOAD, x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLayers() {
+        return Chunk.LAYER_TILE | Chunk.LAYER_ITEM | Chunk.LAYER_PROPERTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onChunkChange(ChunkChangeBatch batch) {
+        final Chunk chunk = batch.getChunk();
+
+        try {
+            for (int i = 0, j = batch.size(); i < j; i++) {
+                final int layer = batch.getLayer(i);
+                final int position = batch.getPosition(i);
+
+                if ((layer & getLayers()) != 0) {
+                    mStream.writeByte(mRecordingResults ? TickLog.OPERATION_RESULT : TickLog.OPERATION_CHANGE);
+                    mStream.writeInt(chunk.getX());
+                    mStream.writeInt(chunk.getY());
+                    mStream.writeByte(layer);
+                    mStream.writeShort(position);
+                    mStream.writeInt(chunk.getLayer(layer)[position]);
+
+                    if (layer == Chunk.LAYER_ITEM) {
+                        chunk.forEachItem(chunk.getLayout().getX(position), chunk.getLayout().getY(position), 1, 1,
+                                mStackProcedure);
+                        mStream.writeInt(0);
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        mStream.close();
+    }
+
+    /**
+     * Write an item stack of a tile.
+     *
+     * @param id     the unique identifier of the item.
+     * @param amount the amount of the item.
+     */
+    private void writeStack(int id, int amount) {
+        try {
+            mStream.writeInt(id);
+            mStream.writeInt(amount);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Write a record of a {@linkplain Chunk}.
+     *
+     * @param operation the operation of the record.
+     * @param x         the x coordinates (in chunk coordinates).
+     * @param y         the y coordinates (in chunk coordinates).
+     */
+    private void writeChunk(byte operation, int x, int y) {
+        try {
+            mStream.writeByte(operation);
+            mStream.writeInt(x);
+            mStream.writeInt(y);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
\ No newline at end of file
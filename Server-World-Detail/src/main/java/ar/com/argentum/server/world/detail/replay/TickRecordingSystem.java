@@ -0,0 +1,132 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+
+import java.util.Arrays;
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that records the movement intents of every entity into a
+ * {@linkplain TickRecorder}.
+ * <p>
+ * The system must be the last system of the world, since it closes the tick in the log. Every chunk change made
+ * during the tick is recorded as its output, so a {@linkplain TickBeginSystem} must be the first system of the world
+ * when changes are also made between tick(s).
+ */
+public final class TickRecordingSystem extends IteratingSystem {
+    /**
+     * Represent an entity without a recorded state.
+     */
+    private final static int NO_STATE = -1;
+
+    private final TickRecorder mRecorder;
+    private final ChunkChangeBus mBus;
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private int[] mStates = new int[64];
+
+    /**
+     * Constructor for {@link TickRecordingSystem}.
+     *
+     * @param recorder the recorder where every intent is written.
+     * @param bus      the bus to dispatch as the output(s) of the tick before closing it (nullable).
+     */
+    public TickRecordingSystem(TickRecorder recorder, ChunkChangeBus bus) {
+        super(Aspect.all(PositionComponent.class, PositionMovemenetComponent.class));
+        this.mRecorder = recorder;
+        this.mBus = bus;
+
+        Arrays.fill(mStates, NO_STATE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+        mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void inserted(int entity) {
+        final PositionComponent position = mPositionMapper.get(entity);
+        final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+
+        mRecorder.recordSpawn(entity, position.getX(), position.getY(), movement.getHeading(), movement.isMoving());
+        setState(entity, TickLog.getState(movement.getHeading().ordinal(), movement.isMoving()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void removed(int entity) {
+        mRecorder.recordDespawn(entity);
+        setState(entity, NO_STATE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+        final int state = TickLog.getState(movement.getHeading().ordinal(), movement.isMoving());
+
+        if (mStates[entity] != state) {
+            mRecorder.recordMovement(entity, movement.getHeading(), movement.isMoving());
+            mStates[entity] = state;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void end() {
+        if (mBus != null) {
+            mRecorder.recordResults(mBus);
+        }
+        mRecorder.recordTick();
+    }
+
+    /**
+     * Changes the recorded state of an entity.
+     *
+     * @param entity the identifier of the entity.
+     * @param state  the state of the entity.
+     */
+    private void setState(int entity, int state) {
+        if (entity >= mStates.length) {
+            final int length = mStates.length;
+            mStates = Arrays.copyOf(mStates, Math.max(entity + 1, length << 1));
+            Arrays.fill(mStates, length, mStates.length, NO_STATE);
+        }
+        mStates[entity] = state;
+    }
+}
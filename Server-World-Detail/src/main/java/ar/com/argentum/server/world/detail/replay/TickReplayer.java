@@ -0,0 +1,445 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.replay;
+
+import ar.com.argentum.server.world.detail.simulation.LoadSimulator;
+import ar.com.argentum.server.world.detail.simulation.SimulationChunkGenerator;
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkChangeBatch;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkItemProcedure;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkListener;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.gs.collections.impl.list.mutable.primitive.IntArrayList;
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import com.gs.collections.impl.map.mutable.primitive.IntIntHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Represents a replayer which re-runs a log written by {@linkplain TickRecorder} against a fresh world, and measures
+ * the duration of every tick.
+ * <p>
+ * Every recorded input (entity movement, chunk load(s) and chunk change(s) made between tick(s)) is applied, and the
+ * given system(s) are run as the production system(s) of the world, while every recorded output of a tick is compared
+ * against the replayed chunk(s) once the tick is processed. The duration of a tick covers its input(s), the processing
+ * of the world and the dispatch of its change(s).
+ * <p>
+ * Usage: {@code TickReplayer <log> [seed]}, replaying against the terrain and the system(s) of
+ * {@linkplain LoadSimulator} with the {@linkplain ChunkLayout} recorded in the log.
+ */
+public final class TickReplayer implements ChunkListener {
+    private final ChunkManager mManager;
+    private final ChunkLayout mLayout;
+    private final ChunkChangeBus mBus;
+    private final World mWorld;
+    private final ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private final IntIntHashMap mEntities = new IntIntHashMap();
+    private final IntArrayList mResults = new IntArrayList();
+    private final IntArrayList mStacks = new IntArrayList();
+    private final ChunkItemProcedure mStackProcedure = (x, y, id, amount) -> {
+        mStacks.add(id);
+        mStacks.add(amount);
+    };
+    private long mRecordedChanges;
+    private long mReplayedChanges;
+    private long mMismatches;
+
+    /**
+     * Constructor for {@link TickReplayer}.
+     *
+     * @param manager the manager of every chunk of the fresh world.
+     * @param layout  the layout of every chunk of the manager, which must be the one of the log.
+     * @param bus     the bus every chunk of the manager is attached to (nullable).
+     * @param systems the system(s) of the fresh world, run after a {@linkplain ReplayMovementSystem}.
+     */
+    public TickReplayer(ChunkManager manager, ChunkLayout layout, ChunkChangeBus bus, BaseSystem... systems) {
+        final WorldConfiguration configuration = new WorldConfiguration()
+                .setSystem(new ReplayMovementSystem(manager));
+
+        for (BaseSystem system : systems) {
+            configuration.setSystem(system);
+        }
+        this.mManager = manager;
+        this.mLayout = layout;
+        this.mBus = bus;
+        this.mWorld = new World(configuration);
+        this.mMovementMapper = mWorld.getMapper(PositionMovemenetComponent.class);
+
+        if (bus != null) {
+            bus.register(this);
+        }
+    }
+
+    /**
+     * Retrieves the {@linkplain World} of the replay.
+     *
+     * @return the world that contain(s) every replayed entity.
+     */
+    public World getWorld() {
+        return mWorld;
+    }
+
+    /**
+     * Replay the given log.
+     *
+     * @param stream the stream where the log is read from.
+     *
+     * @return the report of every replayed tick.
+     *
+     * @throws IOException if the log cannot be read, or was recorded with another {@linkplain ChunkLayout}.
+     */
+    public ReplayReport replay(InputStream stream) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        final ChunkLayout layout = readHeader(input);
+
+        if (layout != mLayout) {
+            throw new IOException("Tick log was recorded with layout " + layout + ", not " + mLayout);
+        }
+
+        final LongArrayList times = new LongArrayList();
+        long start = -1L;
+
+        while (true) {
+            final int operation;
+
+            try {
+                operation = input.readByte();
+            } catch (EOFException exception) {
+                break;
+            }
+
+            if (start < 0L) {
+                start = System.nanoTime();
+            }
+
+            switch (operation) {
+                case TickLog.OPERATION_TICK:
+                    input.readInt();
+
+                    mWorld.process();
+
+                    if (mBus != null) {
+                        mBus.dispatch();
+                    }
+                    times.add(System.nanoTime() - start);
+                    start = -1L;
+
+                    verify();
+                    break;
+                case TickLog.OPERATION_SPAWN:
+                    onSpawn(input.readInt(), input.readInt(), input.readInt(), input.readByte());
+                    break;
+                case TickLog.OPERATION_DESPAWN:
+                    onDespawn(input.readInt());
+                    break;
+                case TickLog.OPERATION_MOVE:
+                    onMove(input.readInt(), input.readByte());
+                    break;
+                case TickLog.OPERATION_LOAD:
+                    mManager.loadChunk(input.readInt(), input.readInt());
+                    break;
+                case TickLog.OPERATION_UNLOAD:
+                    mManager.unloadChunk(input.readInt(), input.readInt());
+                    break;
+                case TickLog.OPERATION_CHANGE:
+                    onChange(input.readInt(), input.readInt(), input.readByte(), input.readUnsignedShort(),
+                            input.readInt(), input);
+                    break;
+                case TickLog.OPERATION_RESULT:
+                    onResult(input.readInt(), input.readInt(), input.readByte(), input.readUnsignedShort(),
+                            input.readInt(), input);
+                    break;
+                default:
+                    throw new IOException("Unknown tick log operation " + operation);
+            }
+        }
+        return new ReplayReport(times.toArray(), mRecordedChanges, mReplayedChanges, mMismatches);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLayers() {
+        return Chunk.LAYER_TILE | Chunk.LAYER_ITEM | Chunk.LAYER_PROPERTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChunkChange(ChunkChangeBatch batch) {
+        for (int i = 0, j = batch.size(); i < j; i++) {
+            if ((batch.getLayer(i) & getLayers()) != 0) {
+                mReplayedChanges++;
+            }
+        }
+    }
+
+    /**
+     * Handle the creation of an entity.
+     *
+     * @param entity the identifier of the recorded entity.
+     * @param x      the x coordinate of the entity (in world coordinates).
+     * @param y      the y coordinate of the entity (in world coordinates).
+     * @param state  the state of the movement of the entity.
+     */
+    private void onSpawn(int entity, int x, int y, int state) {
+        final int replayed = mWorld.create();
+        final PositionMovemenetComponent movement = new PositionMovemenetComponent(Heading.getEnumeration(state >> 1));
+        movement.setMoving((state & TickLog.STATE_MOVING) != 0);
+
+        mWorld.edit(replayed).add(new PositionComponent(x, y)).add(movement);
+        mEntities.put(entity, replayed);
+    }
+
+    /**
+     * Handle the removal of an entity, an unknown entity is a mismatch.
+     *
+     * @param entity the identifier of the recorded entity.
+     */
+    private void onDespawn(int entity) {
+        final int replayed = mEntities.removeKeyIfAbsent(entity, -1);
+
+        if (replayed < 0) {
+            mMismatches++;
+        } else {
+            mWorld.delete(replayed);
+        }
+    }
+
+    /**
+     * Handle the movement intent of an entity, an unknown entity is a mismatch.
+     *
+     * @param entity the identifier of the recorded entity.
+     * @param state  the state of the movement of the entity.
+     */
+    private void onMove(int entity, int state) {
+        final int replayed = mEntities.getIfAbsent(entity, -1);
+
+        if (replayed < 0) {
+            mMismatches++;
+            return;
+        }
+
+        final PositionMovemenetComponent movement = mMovementMapper.get(replayed);
+
+        movement.setHeading(Heading.getEnumeration(state >> 1));
+        movement.setMoving((state & TickLog.STATE_MOVING) != 0);
+    }
+
+    /**
+     * Handle the change of a tile made between tick(s).
+     *
+     * @param x        the x coordinates of the chunk (in chunk coordinates).
+     * @param y        the y coordinates of the chunk (in chunk coordinates).
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile within the chunk.
+     * @param value    the value of the tile.
+     * @param input    the stream where the item stack(s) of the tile are read from.
+     *
+     * @throws IOException if the log cannot be read.
+     */
+    private void onChange(int x, int y, int layer, int position, int value, DataInputStream input)
+            throws IOException {
+        mStacks.clear();
+
+        if (layer == Chunk.LAYER_ITEM) {
+            readStacks(input, mStacks);
+        }
+
+        final Optional<Chunk> optional = mManager.getChunk(x, y, true);
+
+        if (!optional.isPresent()) {
+            return;
+        }
+
+        final Chunk chunk = optional.get();
+        final int tileX = chunk.getLayout().getX(position);
+        final int tileY = chunk.getLayout().getY(position);
+
+        switch (layer) {
+            case Chunk.LAYER_TILE:
+                chunk.setTile(tileX, tileY, value);
+                break;
+            case Chunk.LAYER_ITEM:
+                chunk.setItem(tileX, tileY, 0);
+
+                for (int i = 0; i < mStacks.size(); i += 2) {
+                    chunk.addItem(tileX, tileY, mStacks.get(i), mStacks.get(i + 1));
+                }
+                break;
+            case Chunk.LAYER_PROPERTY:
+                chunk.setProperty(tileX, tileY, value);
+                break;
+        }
+    }
+
+    /**
+     * Handle the change of a tile made by the current tick, which is verified once the tick is processed.
+     *
+     * @param x        the x coordinates of the chunk (in chunk coordinates).
+     * @param y        the y coordinates of the chunk (in chunk coordinates).
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile within the chunk.
+     * @param value    the value of the tile.
+     * @param input    the stream where the item stack(s) of the tile are read from.
+     *
+     * @throws IOException if the log cannot be read.
+     */
+    private void onResult(int x, int y, int layer, int position, int value, DataInputStream input)
+            throws IOException {
+        mResults.addAll(x, y, layer, position, value);
+
+        final int count = mResults.size();
+        mResults.add(0);
+
+        if (layer == Chunk.LAYER_ITEM) {
+            readStacks(input, mResults);
+            mResults.set(count, mResults.size() - count - 1);
+        }
+        mRecordedChanges++;
+    }
+
+    /**
+     * Compares every change recorded by the current tick against the replayed chunk(s).
+     */
+    private void verify() {
+        for (int i = 0; i < mResults.size(); ) {
+            final Chunk chunk = mManager.findChunk(mResults.get(i), mResults.get(i + 1));
+            final int layer = mResults.get(i + 2);
+            final int position = mResults.get(i + 3);
+            final int value = mResults.get(i + 4);
+            final int count = mResults.get(i + 5);
+            final int stacks = i + 6;
+
+            i = stacks + count;
+
+            if (chunk == null || chunk.getLayer(layer)[position] != value) {
+                mMismatches++;
+                continue;
+            }
+
+            if (layer == Chunk.LAYER_ITEM) {
+                mStacks.clear();
+                chunk.forEachItem(chunk.getLayout().getX(position), chunk.getLayout().getY(position), 1, 1,
+                        mStackProcedure);
+
+                if (mStacks.size() != count) {
+                    mMismatches++;
+                    continue;
+                }
+                for (int j = 0; j < count; j++) {
+                    if (mStacks.get(j) != mResults.get(stacks + j)) {
+                        mMismatches++;
+                        break;
+                    }
+                }
+            }
+        }
+        mResults.clear();
+    }
+
+    /**
+     * Read every item stack of a tile.
+     *
+     * @param input       the stream where the stack(s) are read from.
+     * @param destination the list where every stack is added as a pair of identifier and amount.
+     *
+     * @throws IOException if the log cannot be read.
+     */
+    private static void readStacks(DataInputStream input, IntArrayList destination) throws IOException {
+        for (int id = input.readInt(); id != 0; id = input.readInt()) {
+            destination.add(id);
+            destination.add(input.readInt());
+        }
+    }
+
+    /**
+     * Reads the header of a tick log.
+     *
+     * @param input the stream where the log is read from.
+     *
+     * @return the layout of every chunk recorded in the log.
+     *
+     * @throws IOException if the stream is not a tick log of the current version.
+     */
+    private static ChunkLayout readHeader(DataInputStream input) throws IOException {
+        if (input.readInt() != TickLog.MAGIC) {
+            throw new IOException("Stream is not a tick log.");
+        }
+        final int version = input.readUnsignedShort();
+
+        if (version != TickLog.VERSION) {
+            throw new IOException("Unsupported tick log version " + version);
+        }
+        final int layout = input.readUnsignedByte();
+
+        if (layout >= ChunkLayout.LENGTH) {
+            throw new IOException("Unknown tick log layout " + layout);
+        }
+        return ChunkLayout.getEnumeration(layout);
+    }
+
+    /**
+     * Entry point of the replay.
+     *
+     * @param arguments the argument(s) of the replay.
+     *
+     * @throws IOException if the log cannot be read.
+     */
+    public static void main(String[] arguments) throws IOException {
+        if (arguments.length < 1) {
+            throw new IllegalArgumentException("Usage: TickReplayer <log> [seed]");
+        }
+        final long seed = arguments.length > 1 ? Long.parseLong(arguments[1]) : 0L;
+        final ChunkLayout layout;
+
+        try (DataInputStream input = new DataInputStream(new FileInputStream(arguments[0]))) {
+            layout = readHeader(input);
+        }
+        final int town = (LoadSimulator.WORLD_CHUNKS << Chunk.CHUNK_SHIFT) >> 1;
+
+        final ChunkChangeBus bus = new ChunkChangeBus();
+        final ChunkManager manager = new DefaultChunkManager(
+                new SimulationChunkGenerator(town, town, LoadSimulator.TOWN_RADIUS, seed),
+                new ChunkPool(LoadSimulator.POOL_CAPACITY), bus, layout);
+
+        try (InputStream stream = new FileInputStream(arguments[0])) {
+            new TickReplayer(manager, layout, bus, LoadSimulator.createActivitySystem(manager, seed))
+                    .replay(stream).print(System.out);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkGenerator;
+import ar.com.argentum.server.world.terrain.ChunkLayerInterner;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Encapsulate a benchmark that measure the cost of loading a world made of an island surrounded by ocean, with and
+ * without a {@linkplain ChunkLayerInterner}.
+ * <p>
+ * Every island chunk is generated by a {@linkplain SimulationChunkGenerator}, while every ocean chunk has the same
+ * tile in every position and no property.
+ */
+public final class ChunkInterningBenchmark {
+    /**
+     * Define the tile of every ocean position.
+     */
+    private final static int OCEAN_TILE = 9;
+
+    /**
+     * Define the maximum number of chunk(s) held by the pool.
+     */
+    private final static int POOL_CAPACITY = 64;
+
+    private final int mWorldChunks;
+    private final int mIslandChunks;
+    private final long mSeed;
+
+    /**
+     * Constructor for {@linkplain ChunkInterningBenchmark}.
+     *
+     * @param worldChunks  the number of chunk(s) per side of the world.
+     * @param islandChunks the number of chunk(s) per side of the island, at the center of the world.
+     * @param seed         the seed of the benchmark.
+     */
+    public ChunkInterningBenchmark(int worldChunks, int islandChunks, long seed) {
+        this.mWorldChunks = worldChunks;
+        this.mIslandChunks = islandChunks;
+        this.mSeed = seed;
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param runs   the number of time(s) the world is loaded per mode.
+     * @param output the stream to print the result into.
+     */
+    public void run(int runs, PrintStream output) {
+        final long[] privateTimes = new long[runs];
+        final long[] internedTimes = new long[runs];
+        long privateBytes = 0L;
+        long internedBytes = 0L;
+        ChunkLayerInterner interner = null;
+
+        // The first load of each mode is a warm-up.
+        for (int run = -1; run < runs; run++) {
+            final DefaultChunkManager privateManager = createManager(null);
+            final long privateTime = load(privateManager);
+            final long privateRetained = getRetainedBytes();
+
+            privateManager.forEachChunk(chunk -> privateManager.unloadChunk(chunk.getX(), chunk.getY()));
+
+            final ChunkPool pool = new ChunkPool(POOL_CAPACITY);
+            final ChunkLayerInterner runInterner = new ChunkLayerInterner(Integer.MAX_VALUE, pool);
+            final DefaultChunkManager internedManager = createManager(runInterner, pool);
+            final long internedTime = load(internedManager);
+            final long internedRetained = getRetainedBytes();
+
+            internedManager.forEachChunk(chunk -> internedManager.unloadChunk(chunk.getX(), chunk.getY()));
+
+            if (run >= 0) {
+                privateTimes[run] = privateTime;
+                internedTimes[run] = internedTime;
+                privateBytes = privateRetained;
+                internedBytes = internedRetained;
+                interner = runInterner;
+            }
+        }
+
+        output.printf("world      %dx%d chunk(s), island %dx%d chunk(s)%n",
+                mWorldChunks, mWorldChunks, mIslandChunks, mIslandChunks);
+        print(output, "private   ", privateTimes, privateBytes);
+        print(output, "interned  ", internedTimes, internedBytes);
+
+        if (interner != null) {
+            output.printf("interner   %d layer(s), %d unique, %.1f%% deduplicated, %.2f MB saved%n",
+                    interner.getInterned(), interner.getUnique(), interner.getRatio() * 100.0,
+                    interner.getSavedBytes() / 1e6D);
+        }
+    }
+
+    /**
+     * Creates a {@linkplain DefaultChunkManager} of the world.
+     *
+     * @param interner the interner of every chunk (nullable).
+     *
+     * @return a new manager without any chunk loaded.
+     */
+    private DefaultChunkManager createManager(ChunkLayerInterner interner) {
+        return createManager(interner, new ChunkPool(POOL_CAPACITY));
+    }
+
+    /**
+     * Creates a {@linkplain DefaultChunkManager} of the world.
+     *
+     * @param interner the interner of every chunk (nullable).
+     * @param pool     the pool of every chunk.
+     *
+     * @return a new manager without any chunk loaded.
+     */
+    private DefaultChunkManager createManager(ChunkLayerInterner interner, ChunkPool pool) {
+        final int center = (mWorldChunks << Chunk.CHUNK_SHIFT) >> 1;
+        final SimulationChunkGenerator island
+                = new SimulationChunkGenerator(center, center, LoadSimulator.TOWN_RADIUS, mSeed);
+        final int first = (mWorldChunks - mIslandChunks) >> 1;
+        final int last = first + mIslandChunks;
+        final ChunkGenerator generator = chunk -> {
+            if (chunk.getX() >= first && chunk.getX() < last && chunk.getY() >= first && chunk.getY() < last) {
+                island.generate(chunk);
+            } else {
+                chunk.fill(Chunk.LAYER_TILE, 0, 0, Chunk.CHUNK_BIT, Chunk.CHUNK_BIT, OCEAN_TILE);
+            }
+        };
+        return new DefaultChunkManager(generator, pool, null, ChunkLayout.LINEAR, interner);
+    }
+
+    /**
+     * Loads every chunk of the world.
+     *
+     * @param manager the manager of the world.
+     *
+     * @return the time (in nanosecond(s)) to load every chunk.
+     */
+    private long load(DefaultChunkManager manager) {
+        final long start = System.nanoTime();
+
+        for (int y = 0; y < mWorldChunks; y++) {
+            for (int x = 0; x < mWorldChunks; x++) {
+                manager.loadChunk(x, y);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Retrieves the number of byte(s) used in the heap after a full collection.
+     *
+     * @return the number of byte(s) retained in the heap.
+     */
+    private static long getRetainedBytes() {
+        final Runtime runtime = Runtime.getRuntime();
+
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Print the time(s) and retained memory of a mode.
+     *
+     * @param output the stream to print the result into.
+     * @param name   the name of the mode.
+     * @param times  the time of every load (in nanosecond(s)).
+     * @param bytes  the number of byte(s) retained in the heap after the last load.
+     */
+    private static void print(PrintStream output, String name, long[] times, long bytes) {
+        Arrays.sort(times);
+
+        output.printf("%s p50 %.2f ms, min %.2f ms, %.2f MB retained%n", name,
+                times[times.length / 2] / 1e6D, times[0] / 1e6D, bytes / 1e6D);
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param arguments the argument(s) of the benchmark.
+     */
+    public static void main(String[] arguments) {
+        final int worldChunks = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 32;
+        final int islandChunks = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 8;
+        final int runs = arguments.length > 2 ? Integer.parseInt(arguments[2]) : 5;
+        final long seed = arguments.length > 3 ? Long.parseLong(arguments[3]) : 0L;
+
+        new ChunkInterningBenchmark(worldChunks, islandChunks, seed).run(runs, System.out);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import ar.com.argentum.server.world.terrain.WorldView;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Encapsulate a benchmark that measure the cost of scanning the neighbourhood of thousands of tile(s) under every
+ * {@linkplain ChunkLayout}, as combat range, visibility or pathfinding queries do.
+ * <p>
+ * Every query counts the blocked tile(s) of the square around a random center, row by row. Each query is measured
+ * through a {@linkplain WorldView} per tile, and through the property array of every {@linkplain Chunk} overlapped
+ * by the square.
+ */
+public final class ChunkLayoutBenchmark {
+    /**
+     * Define the number of chunk(s) per side of the loaded area.
+     */
+    private final static int AREA_CHUNKS = 24;
+
+    /**
+     * Define the length of the loaded area (in tiles).
+     */
+    private final static int AREA_LENGTH = AREA_CHUNKS << Chunk.CHUNK_SHIFT;
+
+    private final int[] mRadii;
+    private final int[] mCentersX;
+    private final int[] mCentersY;
+    private final long mSeed;
+
+    /**
+     * Constructor for {@linkplain ChunkLayoutBenchmark}.
+     *
+     * @param queries the number of queries per tick.
+     * @param radii   the radius (in tiles) of every measured neighbourhood.
+     * @param seed    the seed of the benchmark.
+     */
+    public ChunkLayoutBenchmark(int queries, int[] radii, long seed) {
+        final Random random = new Random(seed);
+        final int margin = Arrays.stream(radii).max().orElse(0);
+
+        this.mRadii = radii;
+        this.mCentersX = new int[queries];
+        this.mCentersY = new int[queries];
+        this.mSeed = seed;
+
+        for (int i = 0; i < queries; i++) {
+            mCentersX[i] = margin + random.nextInt(AREA_LENGTH - (margin << 1));
+            mCentersY[i] = margin + random.nextInt(AREA_LENGTH - (margin << 1));
+        }
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param warmup the number of tick(s) to run before measuring.
+     * @param ticks  the number of tick(s) to measure.
+     * @param output the stream to print the result into.
+     */
+    public void run(int warmup, int ticks, PrintStream output) {
+        output.printf("area       %dx%d chunk(s), %d queries per tick%n", AREA_CHUNKS, AREA_CHUNKS, mCentersX.length);
+
+        for (ChunkLayout layout : ChunkLayout.VALUES) {
+            final ChunkManager manager = new DefaultChunkManager(
+                    new SimulationChunkGenerator(AREA_LENGTH / 2, AREA_LENGTH / 2, LoadSimulator.TOWN_RADIUS, mSeed),
+                    new ChunkPool(0), null, layout);
+            final WorldView view = new WorldView(manager);
+
+            for (int y = 0; y < AREA_CHUNKS; y++) {
+                for (int x = 0; x < AREA_CHUNKS; x++) {
+                    manager.loadChunk(x, y);
+                }
+            }
+
+            for (int radius : mRadii) {
+                final long[] viewTimes = new long[ticks];
+                final long[] directTimes = new long[ticks];
+                long blocked = 0L;
+
+                for (int tick = -warmup; tick < ticks; tick++) {
+                    final long start = System.nanoTime();
+                    final long viewed = scanView(view, radius);
+                    final long middle = System.nanoTime();
+                    final long direct = scanDirect(manager, radius);
+                    final long end = System.nanoTime();
+
+                    if (viewed != direct) {
+                        throw new IllegalStateException("Scan(s) disagree: " + viewed + " != " + direct);
+                    }
+                    if (tick >= 0) {
+                        viewTimes[tick] = middle - start;
+                        directTimes[tick] = end - middle;
+                        blocked = direct;
+                    }
+                }
+
+                final long tiles = (long) mCentersX.length * ((radius << 1) + 1) * ((radius << 1) + 1);
+
+                print(output, layout, radius, "view  ", viewTimes, tiles, blocked);
+                print(output, layout, radius, "direct", directTimes, tiles, blocked);
+            }
+        }
+    }
+
+    /**
+     * Scan the neighbourhood of every center through a {@linkplain WorldView}.
+     *
+     * @param view   the view of the loaded area.
+     * @param radius the radius (in tiles) of the neighbourhood.
+     *
+     * @return the number of blocked tile(s).
+     */
+    private long scanView(WorldView view, int radius) {
+        long blocked = 0L;
+
+        for (int i = 0; i < mCentersX.length; i++) {
+            final int centerX = mCentersX[i];
+            final int centerY = mCentersY[i];
+
+            for (int y = centerY - radius; y <= centerY + radius; y++) {
+                for (int x = centerX - radius; x <= centerX + radius; x++) {
+                    blocked += (view.getProperty(x, y) & Chunk.TILE_PROPERTY_BLOCKED) != 0 ? 1 : 0;
+                }
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Scan the neighbourhood of every center through the property array of every overlapped {@linkplain Chunk}.
+     *
+     * @param manager the manager of the loaded area.
+     * @param radius  the radius (in tiles) of the neighbourhood.
+     *
+     * @return the number of blocked tile(s).
+     */
+    private long scanDirect(ChunkManager manager, int radius) {
+        long blocked = 0L;
+
+        for (int i = 0; i < mCentersX.length; i++) {
+            final int minimumX = mCentersX[i] - radius;
+            final int minimumY = mCentersY[i] - radius;
+            final int maximumX = mCentersX[i] + radius;
+            final int maximumY = mCentersY[i] + radius;
+
+            for (int chunkY = minimumY >> Chunk.CHUNK_SHIFT; chunkY <= maximumY >> Chunk.CHUNK_SHIFT; chunkY++) {
+                for (int chunkX = minimumX >> Chunk.CHUNK_SHIFT; chunkX <= maximumX >> Chunk.CHUNK_SHIFT; chunkX++) {
+                    final Chunk chunk = manager.findChunk(chunkX, chunkY);
+                    final int[] properties = chunk.getProperties();
+                    final ChunkLayout layout = chunk.getLayout();
+                    final int baseX = chunkX << Chunk.CHUNK_SHIFT;
+                    final int baseY = chunkY << Chunk.CHUNK_SHIFT;
+                    final int firstX = Math.max(minimumX, baseX) - baseX;
+                    final int lastX = Math.min(maximumX, baseX + Chunk.CHUNK_MASK) - baseX;
+                    final int firstY = Math.max(minimumY, baseY) - baseY;
+                    final int lastY = Math.min(maximumY, baseY + Chunk.CHUNK_MASK) - baseY;
+
+                    for (int y = firstY, row = layout.getPosition(firstX, firstY); y <= lastY; y++) {
+                        for (int x = firstX, position = row; x <= lastX; x++) {
+                            blocked += (properties[position] & Chunk.TILE_PROPERTY_BLOCKED) != 0 ? 1 : 0;
+                            position = layout.getNextX(position);
+                        }
+                        row = layout.getNextY(row);
+                    }
+                }
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Print the time(s) of a mode.
+     *
+     * @param output  the stream to print the result into.
+     * @param layout  the layout of every chunk.
+     * @param radius  the radius (in tiles) of the neighbourhood.
+     * @param name    the name of the mode.
+     * @param times   the time of every tick (in nanosecond(s)).
+     * @param tiles   the number of tile(s) scanned per tick.
+     * @param blocked the number of blocked tile(s) per tick.
+     */
+    private static void print(PrintStream output, ChunkLayout layout, int radius, String name, long[] times,
+                              long tiles, long blocked) {
+        Arrays.sort(times);
+
+        output.printf("%-7s r=%-3d %s p50 %.1f us, p99 %.1f us, %.2f ns per tile, %d blocked%n", layout, radius,
+                name, times[times.length / 2] / 1_000.0, times[(int) (times.length * 0.99)] / 1_000.0,
+                (double) times[times.length / 2] / tiles, blocked);
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param arguments the argument(s) of the benchmark.
+     */
+    public static void main(String[] arguments) {
+        final int queries = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 2000;
+        final int ticks = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 200;
+        final int[] radii = arguments.length > 2
+                ? Arrays.stream(arguments[2].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 4, 9, 16};
+        final long seed = arguments.length > 3 ? Long.parseLong(arguments[3]) : 0L;
+
+        new ChunkLayoutBenchmark(queries, radii, seed).run(ticks / 4, ticks, System.out);
+    }
+}
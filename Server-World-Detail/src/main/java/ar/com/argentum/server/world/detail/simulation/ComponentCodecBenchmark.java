@@ -0,0 +1,327 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.entity.ComponentCodec;
+import ar.com.argentum.server.world.entity.Alignment;
+import ar.com.argentum.server.world.entity.Gender;
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.Race;
+import ar.com.argentum.server.world.entity.Religion;
+import ar.com.argentum.server.world.entity.component.CharacterComponent;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import com.artemis.ComponentMapper;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.artemis.utils.IntBag;
+import com.gs.collections.api.list.ImmutableList;
+import com.gs.collections.impl.factory.Lists;
+import com.gs.collections.impl.factory.Maps;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Encapsulate a benchmark that measure the cost of saving and loading the component(s) of thousands of character(s),
+ * as in a mass logout, with the {@linkplain ComponentCodec} and with a text serializer.
+ * <p>
+ * Every character has a {@linkplain PositionComponent}, a {@linkplain PositionMovemenetComponent} and a
+ * {@linkplain CharacterComponent}. The text serializer writes one line per character with every field by name, and
+ * reads it back by splitting every line.
+ */
+public final class ComponentCodecBenchmark {
+    private final ImmutableList<Race> mRaces = Lists.immutable.of(
+            new Race("Humano", Lists.immutable.empty()), new Race("Elfo", Lists.immutable.empty()),
+            new Race("Elfo Oscuro", Lists.immutable.empty()), new Race("Gnomo", Lists.immutable.empty()),
+            new Race("Enano", Lists.immutable.empty()));
+    private final ImmutableList<Religion> mReligions = Lists.immutable.of(
+            new Religion("Armada", Alignment.GOOD, Maps.immutable.empty()),
+            new Religion("Legion", Alignment.EVIL, Maps.immutable.empty()));
+    private final int mEntities;
+    private final World mSource;
+    private final World mDestination;
+    private final IntBag mSourceEntities = new IntBag();
+    private final IntBag mDestinationEntities = new IntBag();
+    private final ComponentCodec mSourceCodec;
+    private final ComponentCodec mDestinationCodec;
+    private final ComponentMapper<PositionComponent> mPositionMapper;
+    private final ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private final ComponentMapper<CharacterComponent> mCharacterMapper;
+    private final ComponentMapper<PositionComponent> mDestinationPositionMapper;
+    private final ComponentMapper<PositionMovemenetComponent> mDestinationMovementMapper;
+    private final ComponentMapper<CharacterComponent> mDestinationCharacterMapper;
+    private final ByteBuffer mBuffer;
+
+    /**
+     * Constructor for {@linkplain ComponentCodecBenchmark}.
+     *
+     * @param entities the number of character(s).
+     * @param seed     the seed of the benchmark.
+     */
+    public ComponentCodecBenchmark(int entities, long seed) {
+        final Random random = new Random(seed);
+
+        this.mEntities = entities;
+        this.mSource = new World(new WorldConfiguration());
+        this.mDestination = new World(new WorldConfiguration());
+        this.mSourceCodec = new ComponentCodec(mSource, mRaces, mReligions);
+        this.mDestinationCodec = new ComponentCodec(mDestination, mRaces, mReligions);
+        this.mPositionMapper = mSource.getMapper(PositionComponent.class);
+        this.mMovementMapper = mSource.getMapper(PositionMovemenetComponent.class);
+        this.mCharacterMapper = mSource.getMapper(CharacterComponent.class);
+        this.mDestinationPositionMapper = mDestination.getMapper(PositionComponent.class);
+        this.mDestinationMovementMapper = mDestination.getMapper(PositionMovemenetComponent.class);
+        this.mDestinationCharacterMapper = mDestination.getMapper(CharacterComponent.class);
+        this.mBuffer = ByteBuffer.allocate(ComponentCodec.getEncodedLength(entities));
+
+        for (int i = 0; i < entities; i++) {
+            final int entity = mSource.create();
+            final EntityEdit edit = mSource.edit(entity);
+            final int religion = random.nextInt(mReligions.size() + 1);
+
+            edit.add(new PositionComponent(random.nextInt(1 << 14), random.nextInt(1 << 14)));
+            edit.add(new PositionMovemenetComponent(Heading.getEnumeration(random.nextInt(Heading.LENGTH))));
+            edit.add(new CharacterComponent(mRaces.get(random.nextInt(mRaces.size())),
+                    Gender.getEnumeration(random.nextInt(Gender.LENGTH)),
+                    Alignment.getEnumeration(random.nextInt(Alignment.LENGTH)),
+                    religion == mReligions.size() ? null : mReligions.get(religion)));
+            mSourceEntities.add(entity);
+        }
+        mSource.process();
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param warmup the number of run(s) before measuring.
+     * @param runs   the number of run(s) to measure.
+     * @param output the stream to print the result into.
+     */
+    public void run(int warmup, int runs, PrintStream output) {
+        final long[] encodeTimes = new long[runs];
+        final long[] decodeTimes = new long[runs];
+        final long[] textEncodeTimes = new long[runs];
+        final long[] textDecodeTimes = new long[runs];
+        long allocated = 0L;
+        long textAllocated = 0L;
+        int bytes = 0;
+        int textBytes = 0;
+        long mismatches = 0L;
+
+        for (int run = -warmup; run < runs; run++) {
+            final long allocatedStart = getAllocatedBytes();
+            final long start = System.nanoTime();
+
+            mBuffer.clear();
+            mSourceCodec.encode(mSourceEntities, mBuffer);
+            mBuffer.flip();
+
+            final long middle = System.nanoTime();
+
+            if (mDestinationEntities.isEmpty()) {
+                mDestinationCodec.decode(mBuffer, mDestinationEntities);
+            } else {
+                decode(mBuffer);
+            }
+
+            final long end = System.nanoTime();
+            final long allocatedEnd = getAllocatedBytes();
+            final int length = mBuffer.limit();
+
+            mismatches += compare();
+
+            final long textAllocatedStart = getAllocatedBytes();
+            final long textStart = System.nanoTime();
+            final byte[] text = encodeText();
+            final long textMiddle = System.nanoTime();
+            decodeText(text);
+            final long textEnd = System.nanoTime();
+            final long textAllocatedEnd = getAllocatedBytes();
+
+            mismatches += compare();
+
+            if (run >= 0) {
+                encodeTimes[run] = middle - start;
+                decodeTimes[run] = end - middle;
+                textEncodeTimes[run] = textMiddle - textStart;
+                textDecodeTimes[run] = textEnd - textMiddle;
+                allocated += allocatedEnd - allocatedStart;
+                textAllocated += textAllocatedEnd - textAllocatedStart;
+                bytes = length;
+                textBytes = text.length;
+            }
+        }
+
+        output.printf("entities   %d%n", mEntities);
+        print(output, "codec     ", encodeTimes, decodeTimes, bytes, allocated / runs);
+        print(output, "text      ", textEncodeTimes, textDecodeTimes, textBytes, textAllocated / runs);
+        output.printf("mismatches %d%n", mismatches);
+    }
+
+    /**
+     * Decodes every character from the given buffer into the entities of the destination world.
+     *
+     * @param buffer the buffer that contain(s) every character.
+     */
+    private void decode(ByteBuffer buffer) {
+        buffer.getShort();
+        buffer.getInt();
+
+        final int[] data = mDestinationEntities.getData();
+
+        for (int i = 0, j = mDestinationEntities.size(); i < j; i++) {
+            mDestinationCodec.decode(buffer, data[i]);
+        }
+    }
+
+    /**
+     * Encodes every character as text, one line per character.
+     *
+     * @return the text encoded in UTF-8.
+     */
+    private byte[] encodeText() {
+        final StringBuilder builder = new StringBuilder();
+        final int[] data = mSourceEntities.getData();
+
+        for (int i = 0, j = mSourceEntities.size(); i < j; i++) {
+            final PositionComponent position = mPositionMapper.get(data[i]);
+            final PositionMovemenetComponent movement = mMovementMapper.get(data[i]);
+            final CharacterComponent character = mCharacterMapper.get(data[i]);
+
+            builder.append(position.getX()).append(';').append(position.getY()).append(';')
+                    .append(movement.getHeading().name()).append(';').append(movement.isMoving()).append(';')
+                    .append(character.getRace().getName()).append(';')
+                    .append(character.getGender().name()).append(';')
+                    .append(character.getAlignment().name()).append(';')
+                    .append(character.getReligion() == null ? "" : character.getReligion().getName()).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes every character from text into the entities of the destination world.
+     *
+     * @param text the text encoded in UTF-8.
+     */
+    private void decodeText(byte[] text) {
+        final String[] lines = new String(text, StandardCharsets.UTF_8).split("\n");
+        final int[] data = mDestinationEntities.getData();
+
+        for (int i = 0; i < lines.length; i++) {
+            final String[] fields = lines[i].split(";", -1);
+            final PositionComponent position = mDestinationPositionMapper.get(data[i]);
+            final PositionMovemenetComponent movement = mDestinationMovementMapper.get(data[i]);
+            final CharacterComponent character = mDestinationCharacterMapper.get(data[i]);
+
+            position.set(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]));
+            movement.setHeading(Heading.valueOf(fields[2]));
+            movement.setMoving(Boolean.parseBoolean(fields[3]));
+            character.setRace(mRaces.detect(race -> race.getName().equals(fields[4])));
+            character.setGender(Gender.valueOf(fields[5]));
+            character.setAlignment(Alignment.valueOf(fields[6]));
+            character.setReligion(mReligions.detect(religion -> religion.getName().equals(fields[7])));
+        }
+    }
+
+    /**
+     * Compare every character of the source world with the destination world.
+     *
+     * @return the number of character(s) that differ.
+     */
+    private long compare() {
+        final int[] source = mSourceEntities.getData();
+        final int[] destination = mDestinationEntities.getData();
+        long mismatches = 0L;
+
+        for (int i = 0, j = mSourceEntities.size(); i < j; i++) {
+            final PositionComponent position = mPositionMapper.get(source[i]);
+            final PositionComponent otherPosition = mDestinationPositionMapper.get(destination[i]);
+            final PositionMovemenetComponent movement = mMovementMapper.get(source[i]);
+            final PositionMovemenetComponent otherMovement = mDestinationMovementMapper.get(destination[i]);
+            final CharacterComponent character = mCharacterMapper.get(source[i]);
+            final CharacterComponent otherCharacter = mDestinationCharacterMapper.get(destination[i]);
+
+            if (position.getX() != otherPosition.getX() || position.getY() != otherPosition.getY()
+                    || movement.getHeading() != otherMovement.getHeading()
+                    || movement.isMoving() != otherMovement.isMoving()
+                    || character.getRace() != otherCharacter.getRace()
+                    || character.getGender() != otherCharacter.getGender()
+                    || character.getAlignment() != otherCharacter.getAlignment()
+                    || character.getReligion() != otherCharacter.getReligion()) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Print the time(s) of a mode.
+     *
+     * @param output      the stream to print the result into.
+     * @param name        the name of the mode.
+     * @param encodeTimes the time of every encoding (in nanosecond(s)).
+     * @param decodeTimes the time of every decoding (in nanosecond(s)).
+     * @param bytes       the number of byte(s) encoded.
+     * @param allocated   the number of byte(s) allocated per run.
+     */
+    private void print(PrintStream output, String name, long[] encodeTimes, long[] decodeTimes,
+                       int bytes, long allocated) {
+        Arrays.sort(encodeTimes);
+        Arrays.sort(decodeTimes);
+
+        output.printf("%s encode %.1f ns, decode %.1f ns per entity, %.1f byte(s) per entity, "
+                        + "%d allocated byte(s) per run%n", name,
+                (double) encodeTimes[encodeTimes.length / 2] / mEntities,
+                (double) decodeTimes[decodeTimes.length / 2] / mEntities,
+                (double) bytes / mEntities, allocated);
+    }
+
+    /**
+     * Retrieves the number of byte(s) allocated by the current thread.
+     *
+     * @return the number of byte(s) allocated, or 0 if unsupported.
+     */
+    private static long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param arguments the argument(s) of the benchmark.
+     */
+    public static void main(String[] arguments) {
+        final int entities = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 10000;
+        final int runs = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 200;
+        final long seed = arguments.length > 2 ? Long.parseLong(arguments[2]) : 0L;
+
+        new ComponentCodecBenchmark(entities, seed).run(runs / 4, runs, System.out);
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import ar.com.argentum.server.world.terrain.LineOfSight;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Encapsulate a benchmark that measure the cost of the line-of-sight test(s) of hundreds of caster(s) per tick.
+ * <p>
+ * Every tick each caster tests every target around it (perception) and then tests again the first visible target
+ * (attack). Each tick is measured three time(s): walking every line with {@linkplain ChunkManager#getChunkAt} and
+ * {@linkplain Chunk#isBlocked} per tile, walking every line with {@linkplain LineOfSight#trace}, and using the cached
+ * {@linkplain LineOfSight#isVisible} queries.
+ */
+public final class LineOfSightBenchmark {
+    /**
+     * Define the number of chunk(s) per side of the loaded area.
+     */
+    private final static int AREA_CHUNKS = 8;
+
+    /**
+     * Define the length of the loaded area (in tiles).
+     */
+    private final static int AREA_LENGTH = AREA_CHUNKS << Chunk.CHUNK_SHIFT;
+
+    /**
+     * Define the maximum distance (in tiles) between a caster and any of its target(s).
+     */
+    private final static int TARGET_RANGE = 12;
+
+    private final ChunkManager mManager;
+    private final LineOfSight mLineOfSight;
+    private final Random mRandom;
+    private final int mCasters;
+    private final int mTargets;
+    private final int[] mCastersX;
+    private final int[] mCastersY;
+    private final int[][] mTargetsX;
+    private final int[][] mTargetsY;
+    private final boolean[] mVisibility;
+
+    /**
+     * Constructor for {@linkplain LineOfSightBenchmark}.
+     *
+     * @param casters the number of caster(s).
+     * @param targets the number of target(s) per caster.
+     * @param seed    the seed of the benchmark.
+     */
+    public LineOfSightBenchmark(int casters, int targets, long seed) {
+        this.mManager = new DefaultChunkManager(
+                new SimulationChunkGenerator(AREA_LENGTH / 2, AREA_LENGTH / 2, LoadSimulator.TOWN_RADIUS, seed),
+                new ChunkPool(0));
+        this.mLineOfSight = new LineOfSight(mManager);
+        this.mRandom = new Random(seed);
+        this.mCasters = casters;
+        this.mTargets = targets;
+        this.mCastersX = new int[casters];
+        this.mCastersY = new int[casters];
+        this.mTargetsX = new int[casters][targets];
+        this.mTargetsY = new int[casters][targets];
+        this.mVisibility = new boolean[targets];
+
+        for (int y = 0; y < AREA_CHUNKS; y++) {
+            for (int x = 0; x < AREA_CHUNKS; x++) {
+                mManager.loadChunk(x, y);
+            }
+        }
+
+        for (int i = 0; i < casters; i++) {
+            mCastersX[i] = TARGET_RANGE + mRandom.nextInt(AREA_LENGTH - (TARGET_RANGE << 1));
+            mCastersY[i] = TARGET_RANGE + mRandom.nextInt(AREA_LENGTH - (TARGET_RANGE << 1));
+
+            for (int j = 0; j < targets; j++) {
+                mTargetsX[i][j] = mCastersX[i] + mRandom.nextInt((TARGET_RANGE << 1) + 1) - TARGET_RANGE;
+                mTargetsY[i][j] = mCastersY[i] + mRandom.nextInt((TARGET_RANGE << 1) + 1) - TARGET_RANGE;
+            }
+        }
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param warmup the number of tick(s) to run before measuring.
+     * @param ticks  the number of tick(s) to measure.
+     * @param output the stream to print the result into.
+     */
+    public void run(int warmup, int ticks, PrintStream output) {
+        final long[] naiveTimes = new long[ticks];
+        final long[] traceTimes = new long[ticks];
+        final long[] cachedTimes = new long[ticks];
+        long visible = 0L;
+        long mismatches = 0L;
+
+        for (int tick = -warmup; tick < ticks; tick++) {
+            move();
+
+            final long start = System.nanoTime();
+            final long naive = process(0);
+            final long middle = System.nanoTime();
+            final long traced = process(1);
+            final long end = System.nanoTime();
+
+            mLineOfSight.nextTick();
+
+            final long cached = process(2);
+            final long last = System.nanoTime();
+
+            if (tick >= 0) {
+                naiveTimes[tick] = middle - start;
+                traceTimes[tick] = end - middle;
+                cachedTimes[tick] = last - end;
+                visible += cached;
+            }
+            mismatches += Math.abs(naive - traced) + Math.abs(traced - cached);
+        }
+
+        final long rays = (long) mCasters * (mTargets + 1);
+        final long lookups = mLineOfSight.getHits() + mLineOfSight.getMisses();
+
+        output.printf("casters    %d, %d target(s) each, %d ray(s) per tick%n", mCasters, mTargets, rays);
+        print(output, "naive     ", naiveTimes, rays);
+        print(output, "trace     ", traceTimes, rays);
+        print(output, "cached    ", cachedTimes, rays);
+        output.printf("cache      %.1f%% hit(s)%n", lookups == 0 ? 0.0 : 100.0 * mLineOfSight.getHits() / lookups);
+        output.printf("visible    %.1f%%%n", 100.0 * visible / (rays * ticks));
+        output.printf("mismatches %d%n", mismatches);
+    }
+
+    /**
+     * Moves every caster and target by one tile in a random direction, within the loaded area and every target
+     * within the range of its caster.
+     */
+    private void move() {
+        for (int i = 0; i < mCasters; i++) {
+            if (mRandom.nextInt(4) == 0) {
+                mCastersX[i] = clamp(mCastersX[i] + mRandom.nextInt(3) - 1);
+                mCastersY[i] = clamp(mCastersY[i] + mRandom.nextInt(3) - 1);
+            }
+        }
+        for (int i = 0; i < mCasters; i++) {
+            for (int j = 0; j < mTargets; j++) {
+                if (mRandom.nextInt(4) == 0) {
+                    mTargetsX[i][j] = clamp(mTargetsX[i][j] + mRandom.nextInt(3) - 1, mCastersX[i]);
+                    mTargetsY[i][j] = clamp(mTargetsY[i][j] + mRandom.nextInt(3) - 1, mCastersY[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test the line-of-sight of every caster with the given mode.
+     *
+     * @param mode the mode of the test (0 for naive, 1 for uncached and 2 for cached).
+     *
+     * @return the number of visible ray(s).
+     */
+    private long process(int mode) {
+        long visible = 0L;
+
+        for (int i = 0; i < mCasters; i++) {
+            final int x = mCastersX[i];
+            final int y = mCastersY[i];
+            final int[] targetsX = mTargetsX[i];
+            final int[] targetsY = mTargetsY[i];
+            int attack = -1;
+
+            if (mode == 2) {
+                visible += mLineOfSight.isVisible(x, y, targetsX, targetsY, mTargets, mVisibility);
+            } else {
+                for (int j = 0; j < mTargets; j++) {
+                    mVisibility[j] = mode == 0
+                            ? isVisibleNaive(x, y, targetsX[j], targetsY[j])
+                            : mLineOfSight.trace(x, y, targetsX[j], targetsY[j]);
+                    visible += mVisibility[j] ? 1 : 0;
+                }
+            }
+
+            for (int j = 0; j < mTargets && attack < 0; j++) {
+                attack = mVisibility[j] ? j : -1;
+            }
+            if (attack >= 0) {
+                final boolean isVisible = mode == 0
+                        ? isVisibleNaive(x, y, targetsX[attack], targetsY[attack])
+                        : mode == 1
+                        ? mLineOfSight.trace(x, y, targetsX[attack], targetsY[attack])
+                        : mLineOfSight.isVisible(x, y, targetsX[attack], targetsY[attack]);
+                visible += isVisible ? 1 : 0;
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Check whenever the target tile is visible from the source tile, by walking the same line as
+     * {@linkplain LineOfSight} through {@linkplain ChunkManager#getChunkAt} for every tile.
+     *
+     * @param sourceX the x coordinates of the source tile (in world coordinates).
+     * @param sourceY the y coordinates of the source tile (in world coordinates).
+     * @param targetX the x coordinates of the target tile (in world coordinates).
+     * @param targetY the y coordinates of the target tile (in world coordinates).
+     *
+     * @return true if no tile between both tile(s) is blocking, false otherwise.
+     */
+    private boolean isVisibleNaive(int sourceX, int sourceY, int targetX, int targetY) {
+        if (sourceX > targetX || (sourceX == targetX && sourceY > targetY)) {
+            return isVisibleNaive(targetX, targetY, sourceX, sourceY);
+        }
+
+        final int deltaX = Math.abs(targetX - sourceX);
+        final int deltaY = -Math.abs(targetY - sourceY);
+        int error = deltaX + deltaY;
+        int x = sourceX;
+        int y = sourceY;
+
+        while (x != targetX || y != targetY) {
+            final int doubleError = error << 1;
+
+            if (doubleError >= deltaY) {
+                error += deltaY;
+                x += sourceX < targetX ? 1 : -1;
+            }
+            if (doubleError <= deltaX) {
+                error += deltaX;
+                y += sourceY < targetY ? 1 : -1;
+            }
+            if (x == targetX && y == targetY) {
+                return true;
+            }
+
+            final int tileX = x;
+            final int tileY = y;
+
+            if (mManager.getChunkAt(x, y)
+                    .map(chunk -> chunk.isBlocked(tileX & Chunk.CHUNK_MASK, tileY & Chunk.CHUNK_MASK))
+                    .orElse(true)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Print the time(s) of a mode.
+     *
+     * @param output the stream to print the result into.
+     * @param name   the name of the mode.
+     * @param times  the time of every tick (in nanosecond(s)).
+     * @param rays   the number of ray(s) per tick.
+     */
+    private static void print(PrintStream output, String name, long[] times, long rays) {
+        Arrays.sort(times);
+
+        output.printf("%s p50 %.1f us, p99 %.1f us, %.1f ns per ray%n", name,
+                times[times.length / 2] / 1_000.0, times[(int) (times.length * 0.99)] / 1_000.0,
+                (double) times[times.length / 2] / rays);
+    }
+
+    /**
+     * Clamp the given coordinate within the loaded area.
+     *
+     * @param value the coordinate (in world coordinates).
+     *
+     * @return the coordinate within the loaded area.
+     */
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(AREA_LENGTH - 1, value));
+    }
+
+    /**
+     * Clamp the given coordinate within the loaded area and the range of the given caster coordinate.
+     *
+     * @param value  the coordinate (in world coordinates).
+     * @param caster the coordinate of the caster (in world coordinates).
+     *
+     * @return the coordinate within the loaded area and the range of the caster.
+     */
+    private static int clamp(int value, int caster) {
+        return clamp(Math.max(caster - TARGET_RANGE, Math.min(caster + TARGET_RANGE, value)));
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param arguments the argument(s) of the benchmark.
+     */
+    public static void main(String[] arguments) {
+        final int casters = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 500;
+        final int targets = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 16;
+        final int ticks = arguments.length > 2 ? Integer.parseInt(arguments[2]) : 1000;
+        final long seed = arguments.length > 3 ? Long.parseLong(arguments[3]) : 0L;
+
+        new LineOfSightBenchmark(casters, targets, seed).run(ticks / 4, ticks, System.out);
+    }
+}
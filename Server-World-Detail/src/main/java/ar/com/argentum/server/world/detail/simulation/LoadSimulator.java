@@ -0,0 +1,286 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.entity.ComponentCodec;
+import ar.com.argentum.server.world.detail.replay.RecordingChunkManager;
+import ar.com.argentum.server.world.detail.replay.TickBeginSystem;
+import ar.com.argentum.server.world.detail.replay.TickRecorder;
+import ar.com.argentum.server.world.detail.replay.TickRecordingSystem;
+import ar.com.argentum.server.world.detail.terrain.ChunkActivitySystem;
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import com.artemis.Aspect;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.artemis.utils.IntBag;
+import com.gs.collections.impl.factory.Lists;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Represents a headless harness which simulates synthetic players over a generated world, and measures the
+ * duration of every world tick.
+ * <p>
+ * Usage: {@code LoadSimulator [players] [ticks] [LINEAR|MORTON] [seed] [log]}, where every tick is recorded into the
+ * given log (if any) for {@linkplain ar.com.argentum.server.world.detail.replay.TickReplayer}.
+ */
+public final class LoadSimulator {
+    /**
+     * Define the length of the world (in chunks).
+     */
+    public final static int WORLD_CHUNKS = 32;
+
+    /**
+     * Define the radius of the town (in tiles).
+     */
+    public final static int TOWN_RADIUS = 16;
+
+    /**
+     * Define the number of tick(s) between each streaming pass.
+     */
+    public final static int STREAMING_INTERVAL = 20;
+
+    /**
+     * Define the maximum number of chunk(s) held by the pool.
+     */
+    public final static int POOL_CAPACITY = 256;
+
+    /**
+     * Define the distance (in tiles) around a player where every chunk is active.
+     */
+    public final static int ACTIVITY_MARGIN = 16;
+
+    private final int mPlayers;
+    private final Random mRandom;
+    private final World mWorld;
+    private final ChunkPool mPool;
+    private final SimulationChunkGenerator mGenerator;
+    private final DefaultChunkManager mManager;
+    private final SimulationStreamingSystem mStreamingSystem;
+    private final ChunkActivitySystem mActivitySystem;
+    private final IntBag mEntities = new IntBag();
+
+    /**
+     * Constructor for {@link LoadSimulator}.
+     *
+     * @param players the number of synthetic player(s).
+     * @param layout  the layout of every chunk.
+     * @param seed    the seed of the simulation.
+     */
+    public LoadSimulator(int players, ChunkLayout layout, long seed) {
+        this(players, layout, seed, null);
+    }
+
+    /**
+     * Constructor for {@link LoadSimulator}.
+     *
+     * @param players  the number of synthetic player(s).
+     * @param layout   the layout of every chunk.
+     * @param seed     the seed of the simulation.
+     * @param recorder the recorder of every tick (nullable).
+     */
+    public LoadSimulator(int players, ChunkLayout layout, long seed, TickRecorder recorder) {
+        final int worldLength = WORLD_CHUNKS << Chunk.CHUNK_SHIFT;
+        final int town = worldLength >> 1;
+
+        this.mPlayers = players;
+        this.mRandom = new Random(seed);
+        this.mPool = new ChunkPool(POOL_CAPACITY);
+        this.mGenerator = new SimulationChunkGenerator(town, town, TOWN_RADIUS, seed);
+        final ChunkChangeBus bus = recorder == null ? null : new ChunkChangeBus();
+
+        if (bus != null) {
+            bus.register(recorder);
+        }
+        this.mManager = new DefaultChunkManager(mGenerator, mPool, bus, layout);
+
+        final ChunkManager manager = recorder == null ? mManager : new RecordingChunkManager(mManager, recorder);
+        final WorldConfiguration configuration = new WorldConfiguration().expectedEntityCount(players);
+
+        this.mStreamingSystem = new SimulationStreamingSystem(manager, STREAMING_INTERVAL, WORLD_CHUNKS);
+        this.mActivitySystem = createActivitySystem(manager, seed);
+
+        if (bus != null) {
+            configuration.setSystem(new TickBeginSystem(bus));
+        }
+        configuration.setSystem(new SimulationMovementSystem(manager, mRandom, worldLength, town, town, TOWN_RADIUS));
+        configuration.setSystem(mStreamingSystem);
+        configuration.setSystem(mActivitySystem);
+
+        if (recorder != null) {
+            configuration.setSystem(new TickRecordingSystem(recorder, bus));
+        }
+        this.mWorld = new World(configuration);
+
+        for (int i = 0; i < players; i++) {
+            final SimulationBehaviour behaviour = SimulationBehaviour.getEnumeration(i % SimulationBehaviour.LENGTH);
+            final int x = mRandom.nextInt(worldLength);
+            final int y = mRandom.nextInt(worldLength);
+            final int entity = mWorld.create();
+
+            mWorld.edit(entity)
+                    .add(new PositionComponent(x, y))
+                    .add(new PositionMovemenetComponent(Heading.getEnumeration(mRandom.nextInt(Heading.LENGTH))))
+                    .add(new SimulationBotComponent(behaviour, x, y));
+            mEntities.add(entity);
+        }
+    }
+
+    /**
+     * Create the {@linkplain ChunkActivitySystem} of the simulation, which ticks the loot of every chunk around a
+     * player.
+     * <p>
+     * The same system is run by the replay, so every player is matched by its movement rather than its script.
+     *
+     * @param manager the manager of every chunk of the world.
+     * @param seed    the seed of the simulation.
+     *
+     * @return a new system that ticks every active chunk.
+     */
+    public static ChunkActivitySystem createActivitySystem(ChunkManager manager, long seed) {
+        return new ChunkActivitySystem(manager,
+                Aspect.all(PositionComponent.class, PositionMovemenetComponent.class), ACTIVITY_MARGIN,
+                new SimulationDecayTicker(seed));
+    }
+
+    /**
+     * Retrieves the {@linkplain World} of the simulation.
+     *
+     * @return the world that contain(s) every synthetic player.
+     */
+    public World getWorld() {
+        return mWorld;
+    }
+
+    /**
+     * Retrieves the {@linkplain DefaultChunkManager} of the simulation.
+     *
+     * @return the manager of every chunk of the world.
+     */
+    public DefaultChunkManager getManager() {
+        return mManager;
+    }
+
+    /**
+     * Run the simulation.
+     *
+     * @param warmup the number of tick(s) to run before measuring.
+     * @param ticks  the number of tick(s) to measure.
+     *
+     * @return the report of the measured tick(s).
+     */
+    public SimulationReport run(int warmup, int ticks) {
+        for (int i = 0; i < warmup; i++) {
+            mWorld.process();
+        }
+
+        final long[] times = new long[ticks];
+        final long loaded = mGenerator.getGenerated();
+        final long unloaded = mStreamingSystem.getUnloaded();
+        final long active = mActivitySystem.getActiveChunkTicks();
+        final long sleeping = mActivitySystem.getSleepingChunkTicks();
+        final long woken = mActivitySystem.getWokenChunkTicks();
+        final long collections = getCollections();
+        final long allocated = getAllocatedBytes();
+
+        for (int i = 0; i < ticks; i++) {
+            final long start = System.nanoTime();
+            mWorld.process();
+            times[i] = System.nanoTime() - start;
+        }
+
+        final long allocatedBytes = allocated < 0 ? -1L : getAllocatedBytes() - allocated;
+        final long collectionCount = getCollections() - collections;
+
+        final ComponentCodec codec = new ComponentCodec(mWorld, Lists.immutable.empty(), Lists.immutable.empty());
+        final ByteBuffer buffer = ByteBuffer.allocate(ComponentCodec.getEncodedLength(mEntities.size()));
+        final long saveStart = System.nanoTime();
+        codec.encode(mEntities, buffer);
+        final long saveTime = System.nanoTime() - saveStart;
+
+        return new SimulationReport(mPlayers, times, allocatedBytes, collectionCount,
+                mGenerator.getGenerated() - loaded, mStreamingSystem.getUnloaded() - unloaded,
+                (int) mManager.getChunkStream(false).count(), mPool.getHits(), mPool.getMisses(),
+                mActivitySystem.getActiveChunkTicks() - active, mActivitySystem.getSleepingChunkTicks() - sleeping,
+                mActivitySystem.getWokenChunkTicks() - woken, saveTime, buffer.position());
+    }
+
+    /**
+     * Retrieves the number of byte(s) allocated by the current thread.
+     *
+     * @return the number of byte(s) allocated, or -1 if unsupported.
+     */
+    private static long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1L;
+    }
+
+    /**
+     * Retrieves the number of garbage collection(s) since the start of the virtual machine.
+     *
+     * @return the number of garbage collection(s).
+     */
+    private static long getCollections() {
+        long count = 0L;
+
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Entry point of the simulation.
+     *
+     * @param arguments the argument(s) of the simulation.
+     *
+     * @throws IOException if the log cannot be written.
+     */
+    public static void main(String[] arguments) throws IOException {
+        final int players = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 2000;
+        final int ticks = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 2000;
+        final ChunkLayout layout = arguments.length > 2 ? ChunkLayout.valueOf(arguments[2]) : ChunkLayout.LINEAR;
+        final long seed = arguments.length > 3 ? Long.parseLong(arguments[3]) : 0L;
+
+        if (arguments.length > 4) {
+            try (TickRecorder recorder = new TickRecorder(new FileOutputStream(arguments[4]), layout)) {
+                new LoadSimulator(players, layout, seed, recorder).run(ticks / 10, ticks).print(System.out);
+            }
+        } else {
+            new LoadSimulator(players, layout, seed).run(ticks / 10, ticks).print(System.out);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.broadcast.MovementBatchListener;
+import ar.com.argentum.server.world.detail.broadcast.MovementBroadcastSystem;
+import ar.com.argentum.server.world.detail.broadcast.MovementBufferPool;
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import com.artemis.Aspect;
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.gs.collections.impl.map.mutable.primitive.IntObjectHashMap;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Encapsulate a benchmark that measure the cost of broadcasting the movement of every player to every other player
+ * within its area of interest, in a packed city.
+ * <p>
+ * The same movement(s) are broadcast twice: once with a message per movement and observer, and once with a single
+ * batch per observer through {@linkplain MovementBroadcastSystem}.
+ */
+public final class MovementBroadcastBenchmark {
+    /**
+     * Define the radius (in tiles) of the area of interest of every player.
+     */
+    private final static int RADIUS = 9;
+
+    /**
+     * Define the number of byte(s) of a single movement message (operation, entity, x, y and state).
+     */
+    private final static int MESSAGE_LENGTH = 1 + 2 + 2 + 2 + 1;
+
+    /**
+     * Define the number of bit(s) for shifting world coordinates into the cell(s) of the single message mode.
+     */
+    private final static int CELL_SHIFT = 4;
+
+    private final int mPlayers;
+    private final int mCityLength;
+    private final long mSeed;
+    private long mBytes;
+
+    /**
+     * Constructor for {@linkplain MovementBroadcastBenchmark}.
+     *
+     * @param players    the number of player(s).
+     * @param cityLength the length of the city (in tiles).
+     * @param seed       the seed of the benchmark.
+     */
+    public MovementBroadcastBenchmark(int players, int cityLength, long seed) {
+        this.mPlayers = players;
+        this.mCityLength = cityLength;
+        this.mSeed = seed;
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param warmup the number of tick(s) to run before measuring.
+     * @param ticks  the number of tick(s) to measure.
+     * @param output the stream to print the result into.
+     */
+    public void run(int warmup, int ticks, PrintStream output) {
+        final MovementBufferPool pool = new MovementBufferPool(64, 4096);
+        final MovementBatchListener listener = (observer, batch) -> {
+            mBytes += batch.remaining();
+            pool.free(batch);
+        };
+        final MovementBroadcastSystem batched = new MovementBroadcastSystem(
+                Aspect.all(PositionComponent.class), RADIUS, pool, listener);
+
+        output.printf("players    %d in %dx%d tile(s), radius %d%n", mPlayers, mCityLength, mCityLength, RADIUS);
+        run("message   ", new MessageSystem(), warmup, ticks, output);
+        run("batch     ", batched, warmup, ticks, output);
+        output.printf("pool       %d hit(s), %d miss(es)%n", pool.getHits(), pool.getMisses());
+    }
+
+    /**
+     * Run the benchmark with the given broadcast system.
+     *
+     * @param name   the name of the mode.
+     * @param system the system that broadcast every movement.
+     * @param warmup the number of tick(s) to run before measuring.
+     * @param ticks  the number of tick(s) to measure.
+     * @param output the stream to print the result into.
+     */
+    private void run(String name, BaseSystem system, int warmup, int ticks, PrintStream output) {
+        final World world = new World(new WorldConfiguration().setSystem(system));
+        final ComponentMapper<PositionComponent> positionMapper = world.getMapper(PositionComponent.class);
+        final ComponentMapper<PositionMovemenetComponent> movementMapper =
+                world.getMapper(PositionMovemenetComponent.class);
+        final Random random = new Random(mSeed);
+        final int[] entities = new int[mPlayers];
+
+        for (int i = 0; i < mPlayers; i++) {
+            entities[i] = world.create();
+
+            world.edit(entities[i])
+                    .add(new PositionComponent(random.nextInt(mCityLength), random.nextInt(mCityLength)))
+                    .add(new PositionMovemenetComponent(Heading.NORTH));
+        }
+
+        final long[] times = new long[ticks];
+        long allocated = 0L;
+        long bytes = 0L;
+
+        for (int tick = -warmup; tick < ticks; tick++) {
+            for (int entity : entities) {
+                final PositionMovemenetComponent movement = movementMapper.get(entity);
+
+                if (random.nextInt(3) == 0) {
+                    final PositionComponent position = positionMapper.get(entity);
+                    final Heading heading = Heading.getEnumeration(random.nextInt(Heading.LENGTH));
+                    final int x = position.getX() + SimulationMovementSystem.getDeltaX(heading);
+                    final int y = position.getY() + SimulationMovementSystem.getDeltaY(heading);
+
+                    if (x >= 0 && y >= 0 && x < mCityLength && y < mCityLength) {
+                        position.set(x, y);
+                    }
+                    movement.setHeading(heading);
+                    movement.setMoving(true);
+                } else {
+                    movement.setMoving(false);
+                }
+            }
+
+            mBytes = 0L;
+
+            final long allocatedStart = getAllocatedBytes();
+            final long start = System.nanoTime();
+            world.process();
+            final long end = System.nanoTime();
+
+            if (tick >= 0) {
+                times[tick] = end - start;
+                allocated += getAllocatedBytes() - allocatedStart;
+                bytes += mBytes;
+            }
+        }
+        Arrays.sort(times);
+
+        output.printf("%s p50 %.1f us, p99 %.1f us, %.1f ns per player, %.1f byte(s) per player, " +
+                        "%d allocated byte(s) per tick%n", name,
+                times[ticks / 2] / 1_000.0, times[(int) (ticks * 0.99)] / 1_000.0,
+                (double) times[ticks / 2] / mPlayers, (double) bytes / ticks / mPlayers, allocated / ticks);
+        world.dispose();
+    }
+
+    /**
+     * Retrieves the number of byte(s) allocated by the current thread.
+     *
+     * @return the number of byte(s) allocated, or 0 if unsupported.
+     */
+    private static long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    /**
+     * Implementation for {@linkplain IteratingSystem} that sends a single message per movement and observer.
+     */
+    private final class MessageSystem extends IteratingSystem {
+        private final IntObjectHashMap<IntBag> mCells = new IntObjectHashMap<>();
+        private ComponentMapper<PositionComponent> mPositionMapper;
+        private ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+        private int[] mStates = new int[0];
+
+        /**
+         * Constructor for {@link MessageSystem}.
+         */
+        private MessageSystem() {
+            super(Aspect.all(PositionComponent.class, PositionMovemenetComponent.class));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void initialize() {
+            mPositionMapper = world.getMapper(PositionComponent.class);
+            mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void begin() {
+            mCells.forEachValue(IntBag::clear);
+
+            final IntBag entities = getEntityIds();
+
+            for (int i = 0, j = entities.size(); i < j; i++) {
+                final PositionComponent position = mPositionMapper.get(entities.get(i));
+                final int cell = getCell(position.getX(), position.getY());
+                IntBag bag = mCells.get(cell);
+
+                if (bag == null) {
+                    mCells.put(cell, bag = new IntBag());
+                }
+                bag.add(entities.get(i));
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void process(int entity) {
+            final PositionComponent position = mPositionMapper.get(entity);
+            final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+            final int x = position.getX();
+            final int y = position.getY();
+            final int state = (movement.getHeading().ordinal() << 1) | (movement.isMoving() ? 1 : 0);
+
+            if (entity * 3 >= mStates.length) {
+                mStates = Arrays.copyOf(mStates, Math.max(mStates.length << 1, (entity + 1) * 3));
+            }
+            if (mStates[entity * 3] == x && mStates[entity * 3 + 1] == y && mStates[entity * 3 + 2] == state) {
+                return;
+            }
+            mStates[entity * 3] = x;
+            mStates[entity * 3 + 1] = y;
+            mStates[entity * 3 + 2] = state;
+
+            for (int cellY = (y - RADIUS) >> CELL_SHIFT; cellY <= (y + RADIUS) >> CELL_SHIFT; cellY++) {
+                for (int cellX = (x - RADIUS) >> CELL_SHIFT; cellX <= (x + RADIUS) >> CELL_SHIFT; cellX++) {
+                    final IntBag bag = mCells.get(getCell(cellX << CELL_SHIFT, cellY << CELL_SHIFT));
+
+                    for (int i = 0, j = bag == null ? 0 : bag.size(); i < j; i++) {
+                        final int observer = bag.get(i);
+                        final PositionComponent other = mPositionMapper.get(observer);
+
+                        if (observer != entity
+                                && Math.abs(other.getX() - x) <= RADIUS && Math.abs(other.getY() - y) <= RADIUS) {
+                            final ByteBuffer message = ByteBuffer.allocate(MESSAGE_LENGTH)
+                                    .order(ByteOrder.LITTLE_ENDIAN);
+
+                            message.put((byte) 1);
+                            message.putShort((short) entity);
+                            message.putShort((short) x);
+                            message.putShort((short) y);
+                            message.put((byte) state);
+                            message.flip();
+                            mBytes += message.remaining();
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Retrieves the cell of the given world coordinates.
+         *
+         * @param x the x coordinates (in world coordinates).
+         * @param y the y coordinates (in world coordinates).
+         *
+         * @return a number that identify the cell.
+         */
+        private int getCell(int x, int y) {
+            return ((y >> CELL_SHIFT) << 16) | ((x >> CELL_SHIFT) & 0xFFFF);
+        }
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param arguments the argument(s) of the benchmark.
+     */
+    public static void main(String[] arguments) {
+        final int players = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 1000;
+        final int cityLength = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 64;
+        final int ticks = arguments.length > 2 ? Integer.parseInt(arguments[2]) : 1000;
+        final long seed = arguments.length > 3 ? Long.parseLong(arguments[3]) : 0L;
+
+        new MovementBroadcastBenchmark(players, cityLength, seed).run(ticks / 4, ticks, System.out);
+    }
+}
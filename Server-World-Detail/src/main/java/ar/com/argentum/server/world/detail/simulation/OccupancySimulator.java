@@ -0,0 +1,311 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.detail.terrain.DefaultChunkManager;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkChangeBatch;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkListener;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import ar.com.argentum.server.world.terrain.WorldView;
+
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a headless harness which moves many entities concurrently within a small area around a chunk corner,
+ * measuring the throughput of tile occupancy claims and verifying that no tile ends doubly occupied or lost.
+ * <p>
+ * Every thread runs in round(s), and every round ends at a barrier where the occupancy is verified while no entity
+ * is moving, so a violation is caught while racing rather than only at the end.
+ * <p>
+ * Every chunk is attached to a {@linkplain ChunkChangeBus}, so every claim records its change as in a live world;
+ * the bus is dispatched at every barrier, and every tile whose occupant changed during the round must be reported.
+ * <p>
+ * Usage: {@code OccupancySimulator [threads] [movers] [milliseconds] [length]}
+ */
+public final class OccupancySimulator implements ChunkListener {
+    /**
+     * Define the number of move attempt(s) of every thread per round.
+     */
+    private final static int ROUND_ATTEMPTS = 1 << 14;
+
+    private final int mThreads;
+    private final int mMovers;
+    private final int mLength;
+    private final int mOrigin;
+    private final ChunkChangeBus mBus;
+    private final DefaultChunkManager mManager;
+    private final int[] mX;
+    private final int[] mY;
+    private final Chunk[] mChunks;
+    private final int[][] mOccupants;
+    private final boolean[][] mReported;
+    private final int[] mEntities;
+    private long mReportedChanges;
+
+    /**
+     * Constructor for {@link OccupancySimulator}.
+     *
+     * @param threads the number of thread(s) moving entities.
+     * @param movers  the number of entities.
+     * @param length  the length of the area (in tiles), centered around a chunk corner.
+     */
+    public OccupancySimulator(int threads, int movers, int length) {
+        if (movers > length * length) {
+            throw new IllegalArgumentException("Area is too small for the given number of movers.");
+        }
+        if (movers < threads) {
+            throw new IllegalArgumentException("Every thread requires at least one mover.");
+        }
+        this.mThreads = threads;
+        this.mMovers = movers;
+        this.mLength = length;
+        this.mOrigin = Chunk.CHUNK_BIT - (length >> 1);
+        this.mBus = new ChunkChangeBus();
+        this.mManager = new DefaultChunkManager(chunk -> {
+        }, new ChunkPool(0), mBus);
+        this.mX = new int[movers];
+        this.mY = new int[movers];
+        this.mChunks = new Chunk[4];
+        this.mOccupants = new int[mChunks.length][Chunk.CHUNK_LENGTH];
+        this.mReported = new boolean[mChunks.length][Chunk.CHUNK_LENGTH];
+        this.mEntities = new int[Chunk.CHUNK_LENGTH];
+
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 2; x++) {
+                mChunks[getIndex(x, y)] = mManager.loadChunk(x, y).get();
+            }
+        }
+
+        final WorldView view = new WorldView(mManager);
+
+        for (int entity = 0, tile = 0; entity < movers; tile++) {
+            final int x = mOrigin + tile % length;
+            final int y = mOrigin + tile / length;
+
+            if (view.tryClaim(x, y, entity)) {
+                mX[entity] = x;
+                mY[entity] = y;
+                entity++;
+            }
+        }
+
+        for (int i = 0; i < mChunks.length; i++) {
+            mChunks[i].getEntities(mOccupants[i]);
+        }
+        mBus.dispatch();
+        mBus.register(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLayers() {
+        return Chunk.LAYER_ENTITY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChunkChange(ChunkChangeBatch batch) {
+        final boolean[] reported = mReported[getIndex(batch.getChunk().getX(), batch.getChunk().getY())];
+
+        for (int i = 0, j = batch.size(); i < j; i++) {
+            if (batch.getLayer(i) == Chunk.LAYER_ENTITY) {
+                reported[batch.getPosition(i)] = true;
+                mReportedChanges++;
+            }
+        }
+    }
+
+    /**
+     * Run the simulation.
+     *
+     * @param milliseconds the duration of the simulation.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread(s).
+     */
+    public void run(long milliseconds) throws InterruptedException {
+        final AtomicLong moves = new AtomicLong();
+        final AtomicLong attempts = new AtomicLong();
+        final AtomicLong checks = new AtomicLong();
+        final AtomicLong violations = new AtomicLong();
+        final AtomicLong unreported = new AtomicLong();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch latch = new CountDownLatch(mThreads);
+        final long deadline = System.nanoTime() + milliseconds * 1_000_000L;
+        final CyclicBarrier barrier = new CyclicBarrier(mThreads, () -> {
+            violations.addAndGet(verify());
+            unreported.addAndGet(verifyChanges());
+            checks.incrementAndGet();
+            running.set(System.nanoTime() < deadline);
+        });
+
+        for (int thread = 0; thread < mThreads; thread++) {
+            final int index = thread;
+
+            new Thread(() -> {
+                final WorldView view = new WorldView(mManager);
+                final Random random = new Random(index);
+                long threadMoves = 0L;
+                long threadAttempts = 0L;
+
+                do {
+                    for (int i = 0; i < ROUND_ATTEMPTS; i++) {
+                        // Movers are owned by a single thread, threads only race for the tiles.
+                        final int entity = index + random.nextInt(mMovers / mThreads) * mThreads;
+                        final int x = mX[entity];
+                        final int y = mY[entity];
+                        final int direction = random.nextInt(4);
+                        final int targetX = clamp(x + (direction == 0 ? 1 : direction == 1 ? -1 : 0));
+                        final int targetY = clamp(y + (direction == 2 ? 1 : direction == 3 ? -1 : 0));
+
+                        threadAttempts++;
+
+                        if (view.tryMove(x, y, targetX, targetY, entity)) {
+                            mX[entity] = targetX;
+                            mY[entity] = targetY;
+                            threadMoves++;
+                        }
+                    }
+
+                    try {
+                        barrier.await();
+                    } catch (InterruptedException | BrokenBarrierException exception) {
+                        throw new IllegalStateException(exception);
+                    }
+                } while (running.get());
+
+                moves.addAndGet(threadMoves);
+                attempts.addAndGet(threadAttempts);
+                latch.countDown();
+            }, "occupancy-" + index).start();
+        }
+        latch.await();
+
+        System.out.printf("threads            : %d%n", mThreads);
+        System.out.printf("movers             : %d%n", mMovers);
+        System.out.printf("moves              : %.0f /s%n", moves.get() * 1000.0D / milliseconds);
+        System.out.printf("claims rejected    : %.2f %%%n", 100.0D * (attempts.get() - moves.get()) / attempts.get());
+        System.out.printf("checks             : %d%n", checks.get());
+        System.out.printf("violations         : %d%n", violations.get());
+        System.out.printf("changes reported   : %d%n", mReportedChanges);
+        System.out.printf("changes unreported : %d%n", unreported.get());
+    }
+
+    /**
+     * Verify that every entity occupies exactly its tile, and no other tile is occupied.
+     *
+     * @return the number of violation(s).
+     */
+    public int verify() {
+        final WorldView view = new WorldView(mManager);
+        int violations = 0;
+        int occupied = 0;
+
+        for (int entity = 0; entity < mMovers; entity++) {
+            if (view.get(Chunk.LAYER_ENTITY, mX[entity], mY[entity]) != entity) {
+                violations++;
+            }
+        }
+        for (int y = 0; y < Chunk.CHUNK_BIT * 2; y++) {
+            for (int x = 0; x < Chunk.CHUNK_BIT * 2; x++) {
+                if (view.get(Chunk.LAYER_ENTITY, x, y) != Chunk.NO_ENTITY) {
+                    occupied++;
+                }
+            }
+        }
+        return violations + Math.abs(occupied - mMovers);
+    }
+
+    /**
+     * Dispatch the {@linkplain ChunkChangeBus} and verify that every tile whose occupant changed since the last call
+     * has been reported.
+     *
+     * @return the number of tile(s) that changed without being reported.
+     */
+    public int verifyChanges() {
+        mBus.dispatch();
+
+        int unreported = 0;
+
+        for (int i = 0; i < mChunks.length; i++) {
+            final int[] occupants = mOccupants[i];
+            final boolean[] reported = mReported[i];
+
+            mChunks[i].getEntities(mEntities);
+
+            for (int position = 0; position < Chunk.CHUNK_LENGTH; position++) {
+                if (mEntities[position] != occupants[position] && !reported[position]) {
+                    unreported++;
+                }
+                occupants[position] = mEntities[position];
+                reported[position] = false;
+            }
+        }
+        return unreported;
+    }
+
+    /**
+     * Retrieves the index of the chunk at the given coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return the index of the chunk within the area.
+     */
+    private static int getIndex(int x, int y) {
+        return (y << 1) | x;
+    }
+
+    /**
+     * Clamp the given coordinate within the area.
+     *
+     * @param value the coordinate (in world coordinates).
+     *
+     * @return the coordinate within the area.
+     */
+    private int clamp(int value) {
+        return Math.max(mOrigin, Math.min(mOrigin + mLength - 1, value));
+    }
+
+    /**
+     * Entry point of the simulation.
+     *
+     * @param arguments the argument(s) of the simulation.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread(s).
+     */
+    public static void main(String[] arguments) throws InterruptedException {
+        final int threads = arguments.length > 0
+                ? Integer.parseInt(arguments[0]) : Runtime.getRuntime().availableProcessors();
+        final int movers = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 512;
+        final long milliseconds = arguments.length > 2 ? Long.parseLong(arguments[2]) : 2000L;
+        final int length = arguments.length > 3 ? Integer.parseInt(arguments[3]) : 32;
+
+        new OccupancySimulator(threads, movers, length).run(milliseconds);
+    }
+}
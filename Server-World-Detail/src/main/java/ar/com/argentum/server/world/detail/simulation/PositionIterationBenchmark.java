@@ -0,0 +1,166 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.artemis.WorldConfiguration;
+import com.artemis.utils.IntBag;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Encapsulate a benchmark that measure the cost of iterating the {@linkplain PositionComponent} and
+ * {@linkplain PositionMovemenetComponent} of every entity through a {@linkplain PositionIterationSystem}.
+ * <p>
+ * A fraction of the entities is deleted and created again before measuring, so that recycled identifier(s) are
+ * interleaved the same way they are on a long running server.
+ */
+public final class PositionIterationBenchmark {
+    /**
+     * Define the length of the world (in tiles).
+     */
+    private final static int WORLD_LENGTH = LoadSimulator.WORLD_CHUNKS << Chunk.CHUNK_SHIFT;
+
+    /**
+     * Define the number of churn round(s) before measuring.
+     */
+    private final static int CHURN_ROUNDS = 8;
+
+    private final int mEntities;
+    private final Random mRandom;
+    private final World mWorld;
+    private final PositionIterationSystem mSystem;
+    private final long mRetainedBytes;
+
+    /**
+     * Constructor for {@linkplain PositionIterationBenchmark}.
+     *
+     * @param entities the number of entities.
+     * @param seed     the seed of the benchmark.
+     */
+    public PositionIterationBenchmark(int entities, long seed) {
+        this.mEntities = entities;
+        this.mRandom = new Random(seed);
+        this.mSystem = new PositionIterationSystem(WORLD_LENGTH);
+        this.mWorld = new World(new WorldConfiguration().setSystem(mSystem));
+
+        final IntBag created = new IntBag(entities);
+        final long used = getUsedBytes();
+
+        for (int i = 0; i < entities; i++) {
+            created.add(create());
+        }
+        mWorld.process();
+        this.mRetainedBytes = getUsedBytes() - used;
+
+        for (int round = 0; round < CHURN_ROUNDS; round++) {
+            for (int i = 0, j = created.size(); i < j; i++) {
+                if (mRandom.nextInt(4) == 0) {
+                    mWorld.delete(created.get(i));
+                }
+            }
+            mWorld.process();
+
+            for (int i = 0, j = created.size(); i < j; i++) {
+                if (!mWorld.getEntityManager().isActive(created.get(i))) {
+                    created.set(i, create());
+                }
+            }
+            mWorld.process();
+        }
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param warmup     the number of iteration(s) to run before measuring.
+     * @param iterations the number of iteration(s) to measure.
+     * @param output     the stream to print the result into.
+     */
+    public void run(int warmup, int iterations, PrintStream output) {
+        for (int i = 0; i < warmup; i++) {
+            mWorld.process();
+        }
+
+        final long[] times = new long[iterations];
+
+        for (int i = 0; i < iterations; i++) {
+            final long start = System.nanoTime();
+            mWorld.process();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+
+        output.printf("entities   %d%n", mEntities);
+        output.printf("iteration  p50 %.1f us, p99 %.1f us%n",
+                times[iterations / 2] / 1_000.0, times[(int) (iterations * 0.99)] / 1_000.0);
+        output.printf("entity     p50 %.2f ns, %.1f retained byte(s)%n",
+                (double) times[iterations / 2] / mEntities, (double) mRetainedBytes / mEntities);
+        output.printf("checksum   %d%n", mSystem.getChecksum());
+    }
+
+    /**
+     * Creates an entity with a random position and heading.
+     *
+     * @return the identifier of the entity.
+     */
+    private int create() {
+        final int entity = mWorld.create();
+        final EntityEdit edit = mWorld.edit(entity);
+
+        edit.add(new PositionComponent(mRandom.nextInt(WORLD_LENGTH), mRandom.nextInt(WORLD_LENGTH)));
+
+        final PositionMovemenetComponent movement =
+                new PositionMovemenetComponent(Heading.getEnumeration(mRandom.nextInt(Heading.LENGTH)));
+        movement.setMoving(mRandom.nextBoolean());
+        edit.add(movement);
+        return entity;
+    }
+
+    /**
+     * Retrieves the number of byte(s) used by the heap after a garbage collection.
+     *
+     * @return the number of byte(s) used by the heap.
+     */
+    private static long getUsedBytes() {
+        final Runtime runtime = Runtime.getRuntime();
+
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param arguments the argument(s) of the benchmark.
+     */
+    public static void main(String[] arguments) {
+        final int entities = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 100_000;
+        final int iterations = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 2000;
+        final long seed = arguments.length > 2 ? Long.parseLong(arguments[2]) : 0L;
+
+        new PositionIterationBenchmark(entities, seed).run(iterations / 4, iterations, System.out);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that moves every moving entity one tile diagonally
+ * without consulting the terrain, so that only the cost of iterating the position(s) and heading(s) is measured.
+ */
+public final class PositionIterationSystem extends IteratingSystem {
+    private final int mWorldMask;
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private long mChecksum;
+
+    /**
+     * Constructor for {@link PositionIterationSystem}.
+     *
+     * @param worldLength the length of the world (in tiles), must be a power of two.
+     */
+    public PositionIterationSystem(int worldLength) {
+        super(Aspect.all(PositionComponent.class, PositionMovemenetComponent.class));
+
+        if (Integer.bitCount(worldLength) != 1) {
+            throw new IllegalArgumentException("World length must be a power of two");
+        }
+        this.mWorldMask = worldLength - 1;
+    }
+
+    /**
+     * Retrieves the checksum of every position visited.
+     *
+     * @return the checksum of every position visited.
+     */
+    public long getChecksum() {
+        return mChecksum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+        mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+        final PositionComponent position = mPositionMapper.get(entity);
+        final int step = movement.isMoving() ? 1 : 0;
+
+        position.set((position.getX() + step) & mWorldMask, (position.getY() + step) & mWorldMask);
+        mChecksum += (position.getX() ^ position.getY()) + movement.getHeading().ordinal();
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+/**
+ * Enumerates all scripted behaviour(s) of a synthetic player.
+ */
+public enum SimulationBehaviour {
+    /**
+     * Walks toward a random nearby tile, changing the destination once reached.
+     */
+    RANDOM_WALK,
+
+    /**
+     * Walks toward the town and stays around it.
+     */
+    CROWD,
+
+    /**
+     * Walks back and forth across the nearest chunk border.
+     */
+    BORDER_CROSSING;
+
+    /**
+     * An array that contain(s) all enumeration values.
+     */
+    public static final SimulationBehaviour[] VALUES = SimulationBehaviour.values();
+    public static final int LENGTH = VALUES.length;
+
+    /**
+     * Retrieve the enumeration value given the index.
+     *
+     * @param index the index of the enumeration.
+     *
+     * @return the enumeration representation of the given index.
+     */
+    public static SimulationBehaviour getEnumeration(int index) {
+        if (index < 0 || index >= LENGTH) {
+            throw new IllegalArgumentException("Enumeration index is out of bounds");
+        }
+        return VALUES[index];
+    }
+}
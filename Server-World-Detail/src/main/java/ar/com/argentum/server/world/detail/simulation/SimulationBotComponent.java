@@ -0,0 +1,80 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import com.artemis.Component;
+
+/**
+ * Encapsulate a {@linkplain Component} which encapsulate the script of a synthetic player.
+ */
+public final class SimulationBotComponent extends Component {
+    private SimulationBehaviour mBehaviour;
+    private int mTargetX;
+    private int mTargetY;
+
+    /**
+     * Constructor for {@linkplain SimulationBotComponent}.
+     *
+     * @param behaviour the {@linkplain SimulationBehaviour} of the player.
+     * @param x         the x coordinate of the first destination (in world coordinates).
+     * @param y         the y coordinate of the first destination (in world coordinates).
+     */
+    public SimulationBotComponent(SimulationBehaviour behaviour, int x, int y) {
+        this.mBehaviour = behaviour;
+        this.mTargetX = x;
+        this.mTargetY = y;
+    }
+
+    /**
+     * Retrieves the {@linkplain SimulationBehaviour} of the player.
+     *
+     * @return the behaviour of the player.
+     */
+    public SimulationBehaviour getBehaviour() {
+        return mBehaviour;
+    }
+
+    /**
+     * Retrieves the x coordinate of the destination (in world coordinates).
+     *
+     * @return the x coordinate of the destination.
+     */
+    public int getTargetX() {
+        return mTargetX;
+    }
+
+    /**
+     * Retrieves the y coordinate of the destination (in world coordinates).
+     *
+     * @return the y coordinate of the destination.
+     */
+    public int getTargetY() {
+        return mTargetY;
+    }
+
+    /**
+     * Changes the destination of the player.
+     *
+     * @param x the x coordinate of the destination (in world coordinates).
+     * @param y the y coordinate of the destination (in world coordinates).
+     */
+    public void setTarget(int x, int y) {
+        mTargetX = x;
+        mTargetY = y;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkGenerator;
+
+/**
+ * Implementation for {@linkplain ChunkGenerator} that generates a deterministic terrain for simulation(s).
+ * <p>
+ * The terrain contains scattered blocked tiles, except within the town which is kept clear.
+ */
+public final class SimulationChunkGenerator implements ChunkGenerator {
+    private final int mTownX;
+    private final int mTownY;
+    private final int mTownRadius;
+    private final long mSeed;
+    private long mGenerated;
+
+    /**
+     * Constructor for {@link SimulationChunkGenerator}.
+     *
+     * @param townX      the x coordinate of the town center (in world coordinates).
+     * @param townY      the y coordinate of the town center (in world coordinates).
+     * @param townRadius the radius of the town (in tiles).
+     * @param seed       the seed of the terrain.
+     */
+    public SimulationChunkGenerator(int townX, int townY, int townRadius, long seed) {
+        this.mTownX = townX;
+        this.mTownY = townY;
+        this.mTownRadius = townRadius;
+        this.mSeed = seed;
+    }
+
+    /**
+     * Retrieves the number of {@linkplain Chunk}(s) generated.
+     *
+     * @return the number of chunk(s) generated.
+     */
+    public long getGenerated() {
+        return mGenerated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void generate(Chunk chunk) {
+        final int baseX = chunk.getX() << Chunk.CHUNK_SHIFT;
+        final int baseY = chunk.getY() << Chunk.CHUNK_SHIFT;
+
+        for (int y = 0; y < Chunk.CHUNK_BIT; y++) {
+            for (int x = 0; x < Chunk.CHUNK_BIT; x++) {
+                final int hash = getHash(baseX + x, baseY + y);
+
+                chunk.setTile(x, y, 1 + (hash & 0x7));
+
+                if ((hash >>> 8) % 32 == 0 && !isTown(baseX + x, baseY + y)) {
+                    chunk.setBlocked(x, y, true);
+                }
+            }
+        }
+        mGenerated++;
+    }
+
+    /**
+     * Check whenever the given coordinates are within the town.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return true if the coordinates are within the town, false otherwise.
+     */
+    private boolean isTown(int x, int y) {
+        return Math.abs(x - mTownX) <= mTownRadius && Math.abs(y - mTownY) <= mTownRadius;
+    }
+
+    /**
+     * Retrieves a deterministic hash of the given coordinates.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return the hash of the coordinates.
+     */
+    private int getHash(int x, int y) {
+        long hash = mSeed ^ (((long) x << 32) | (y & 0xFFFFFFFFL));
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (hash ^ (hash >>> 33)) & Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkTicker;
+
+import java.util.Random;
+
+/**
+ * Implementation for {@linkplain ChunkTicker} that simulates the loot of a {@linkplain Chunk}, an item is dropped on
+ * a random tile every few tick(s) and every item decays with a fixed chance per tick.
+ * <p>
+ * Every tick scans the whole item layer of the chunk, while catching up decays every item once with the chance of
+ * every slept tick, and drops at most the number of item(s) a chunk holds on average.
+ */
+public final class SimulationDecayTicker implements ChunkTicker {
+    /**
+     * Define the identifier of the dropped item.
+     */
+    public final static int LOOT_ITEM = 1;
+
+    /**
+     * Define the number of tick(s) between each drop (on average).
+     */
+    public final static int DROP_INTERVAL = 4;
+
+    /**
+     * Define the number of tick(s) an item lasts (on average).
+     */
+    public final static int DECAY_TICKS = 256;
+
+    /**
+     * Define the number of item(s) a chunk holds (on average).
+     */
+    public final static int AVERAGE_ITEMS = DECAY_TICKS / DROP_INTERVAL;
+
+    private final Random mRandom;
+    private long mDropped;
+    private long mDecayed;
+
+    /**
+     * Constructor for {@link SimulationDecayTicker}.
+     *
+     * @param seed the seed of the ticker.
+     */
+    public SimulationDecayTicker(long seed) {
+        this.mRandom = new Random(seed);
+    }
+
+    /**
+     * Retrieves the number of item(s) dropped.
+     *
+     * @return the number of item(s) dropped.
+     */
+    public long getDropped() {
+        return mDropped;
+    }
+
+    /**
+     * Retrieves the number of item(s) decayed.
+     *
+     * @return the number of item(s) decayed.
+     */
+    public long getDecayed() {
+        return mDecayed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tick(Chunk chunk) {
+        if (mRandom.nextInt(DROP_INTERVAL) == 0) {
+            drop(chunk);
+        }
+        decay(chunk, 1.0D / DECAY_TICKS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void catchUp(Chunk chunk, int ticks) {
+        decay(chunk, 1.0D - Math.pow(1.0D - 1.0D / DECAY_TICKS, ticks));
+
+        for (int i = Math.min(ticks / DROP_INTERVAL, AVERAGE_ITEMS); i > 0; i--) {
+            drop(chunk);
+        }
+    }
+
+    /**
+     * Drops an item on a random tile of the given {@linkplain Chunk}, unless blocked or already holding an item.
+     *
+     * @param chunk the chunk where to drop the item.
+     */
+    private void drop(Chunk chunk) {
+        final int x = mRandom.nextInt(Chunk.CHUNK_BIT);
+        final int y = mRandom.nextInt(Chunk.CHUNK_BIT);
+
+        if (!chunk.isBlocked(x, y) && chunk.getItem(x, y) == 0) {
+            chunk.setItem(x, y, LOOT_ITEM);
+            mDropped++;
+        }
+    }
+
+    /**
+     * Removes every item of the given {@linkplain Chunk} with the given chance.
+     *
+     * @param chunk  the chunk to decay.
+     * @param chance the chance of every item to decay.
+     */
+    private void decay(Chunk chunk, double chance) {
+        final int[] items = chunk.getItems();
+
+        for (int position = 0; position < Chunk.CHUNK_LENGTH; position++) {
+            if (items[position] != 0 && mRandom.nextDouble() < chance) {
+                chunk.setItem(chunk.getLayout().getX(position), chunk.getLayout().getY(position), 0);
+                mDecayed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.entity.Heading;
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.entity.component.PositionMovemenetComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.WorldView;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+
+import java.util.Random;
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that moves every synthetic player one tile per tick following its
+ * {@linkplain SimulationBehaviour}.
+ */
+public final class SimulationMovementSystem extends IteratingSystem {
+    /**
+     * Define the maximum distance of a random walk destination (in tiles).
+     */
+    private final static int WALK_DISTANCE = 24;
+
+    /**
+     * Define the distance from the border of a border crossing destination (in tiles).
+     */
+    private final static int BORDER_DISTANCE = 3;
+
+    private final ChunkManager mManager;
+    private final WorldView mView;
+    private final Random mRandom;
+    private final int mWorldLength;
+    private final int mTownX;
+    private final int mTownY;
+    private final int mTownRadius;
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private ComponentMapper<PositionMovemenetComponent> mMovementMapper;
+    private ComponentMapper<SimulationBotComponent> mBotMapper;
+
+    /**
+     * Constructor for {@link SimulationMovementSystem}.
+     *
+     * @param manager     the manager of every chunk of the world.
+     * @param random      the source of randomness of every behaviour.
+     * @param worldLength the length of the world (in tiles).
+     * @param townX       the x coordinate of the town center (in world coordinates).
+     * @param townY       the y coordinate of the town center (in world coordinates).
+     * @param townRadius  the radius of the town (in tiles).
+     */
+    public SimulationMovementSystem(ChunkManager manager, Random random, int worldLength,
+                                    int townX, int townY, int townRadius) {
+        super(Aspect.all(PositionComponent.class, PositionMovemenetComponent.class, SimulationBotComponent.class));
+        this.mManager = manager;
+        this.mView = new WorldView(manager);
+        this.mRandom = random;
+        this.mWorldLength = worldLength;
+        this.mTownX = townX;
+        this.mTownY = townY;
+        this.mTownRadius = townRadius;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+        mMovementMapper = world.getMapper(PositionMovemenetComponent.class);
+        mBotMapper = world.getMapper(SimulationBotComponent.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionComponent position = mPositionMapper.get(entity);
+        final PositionMovemenetComponent movement = mMovementMapper.get(entity);
+        final SimulationBotComponent bot = mBotMapper.get(entity);
+
+        final int x = position.getX();
+        final int y = position.getY();
+
+        if (x == bot.getTargetX() && y == bot.getTargetY()) {
+            onTargetReached(bot, x, y);
+        }
+
+        final Heading heading = getHeading(x, y, bot.getTargetX(), bot.getTargetY());
+        final int nextX = clamp(x + getDeltaX(heading));
+        final int nextY = clamp(y + getDeltaY(heading));
+        Chunk chunk = mView.getChunkAt(nextX, nextY);
+
+        if (chunk == null) {
+            chunk = mManager.loadChunkAt(nextX, nextY).orElse(null);
+        }
+
+        movement.setHeading(heading);
+
+        // A step clamped at the border of the world is not a movement, since the replay of the recorded intent would
+        // step out of the world.
+        if (chunk != null && (nextX != x || nextY != y)
+                && !chunk.isBlocked(nextX & Chunk.CHUNK_MASK, nextY & Chunk.CHUNK_MASK)) {
+            position.setX(nextX);
+            position.setY(nextY);
+            movement.setMoving(true);
+        } else {
+            movement.setMoving(false);
+            onTargetReached(bot, x, y);
+        }
+    }
+
+    /**
+     * Changes the destination of a player that has reached (or cannot reach) its destination.
+     *
+     * @param bot the script of the player.
+     * @param x   the x coordinate of the player (in world coordinates).
+     * @param y   the y coordinate of the player (in world coordinates).
+     */
+    private void onTargetReached(SimulationBotComponent bot, int x, int y) {
+        switch (bot.getBehaviour()) {
+            case RANDOM_WALK:
+                bot.setTarget(
+                        clamp(x + mRandom.nextInt(WALK_DISTANCE * 2 + 1) - WALK_DISTANCE),
+                        clamp(y + mRandom.nextInt(WALK_DISTANCE * 2 + 1) - WALK_DISTANCE));
+                break;
+            case CROWD:
+                bot.setTarget(
+                        clamp(mTownX + mRandom.nextInt(mTownRadius * 2 + 1) - mTownRadius),
+                        clamp(mTownY + mRandom.nextInt(mTownRadius * 2 + 1) - mTownRadius));
+                break;
+            case BORDER_CROSSING:
+                final int border = ((x + (Chunk.CHUNK_BIT >> 1)) >> Chunk.CHUNK_SHIFT) << Chunk.CHUNK_SHIFT;
+                bot.setTarget(clamp(x < border ? border + BORDER_DISTANCE : border - BORDER_DISTANCE), y);
+                break;
+        }
+    }
+
+    /**
+     * Clamp the given coordinate within the world.
+     *
+     * @param value the coordinate (in world coordinates).
+     *
+     * @return the coordinate within the world.
+     */
+    private int clamp(int value) {
+        return Math.max(0, Math.min(mWorldLength - 1, value));
+    }
+
+    /**
+     * Retrieves the {@linkplain Heading} toward the given destination.
+     *
+     * @param x       the x coordinate of the player (in world coordinates).
+     * @param y       the y coordinate of the player (in world coordinates).
+     * @param targetX the x coordinate of the destination (in world coordinates).
+     * @param targetY the y coordinate of the destination (in world coordinates).
+     *
+     * @return the heading toward the destination.
+     */
+    private static Heading getHeading(int x, int y, int targetX, int targetY) {
+        final int deltaX = targetX - x;
+        final int deltaY = targetY - y;
+
+        if (Math.abs(deltaX) >= Math.abs(deltaY)) {
+            return deltaX >= 0 ? Heading.EAST : Heading.WEST;
+        }
+        return deltaY > 0 ? Heading.SOUTH : Heading.NORTH;
+    }
+
+    /**
+     * Retrieves the movement in the x axis of the given {@linkplain Heading}.
+     *
+     * @param heading the heading of the movement.
+     *
+     * @return the movement in the x axis (in tiles).
+     */
+    static int getDeltaX(Heading heading) {
+        return heading == Heading.EAST ? 1 : heading == Heading.WEST ? -1 : 0;
+    }
+
+    /**
+     * Retrieves the movement in the y axis of the given {@linkplain Heading}.
+     *
+     * @param heading the heading of the movement.
+     *
+     * @return the movement in the y axis (in tiles).
+     */
+    static int getDeltaY(Heading heading) {
+        return heading == Heading.SOUTH ? 1 : heading == Heading.NORTH ? -1 : 0;
+    }
+}
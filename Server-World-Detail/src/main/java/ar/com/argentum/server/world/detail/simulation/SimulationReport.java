@@ -0,0 +1,191 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Encapsulate the result of a {@linkplain LoadSimulator} run.
+ */
+public final class SimulationReport {
+    private final int mPlayers;
+    private final long[] mTickTimes;
+    private final long mAllocatedBytes;
+    private final long mCollections;
+    private final long mLoadedChunks;
+    private final long mUnloadedChunks;
+    private final int mResidentChunks;
+    private final long mPoolHits;
+    private final long mPoolMisses;
+    private final long mActiveChunks;
+    private final long mSleepingChunks;
+    private final long mWokenChunks;
+    private final long mSaveTime;
+    private final int mSaveBytes;
+
+    /**
+     * Constructor for {@link SimulationReport}.
+     *
+     * @param players        the number of synthetic player(s).
+     * @param tickTimes      the duration of every measured tick (in nanoseconds).
+     * @param allocatedBytes the number of byte(s) allocated during the measured tick(s), or -1 if unsupported.
+     * @param collections    the number of garbage collection(s) during the measured tick(s).
+     * @param loadedChunks   the number of chunk(s) loaded.
+     * @param unloadedChunks the number of chunk(s) unloaded.
+     * @param residentChunks the number of chunk(s) loaded at the end of the run.
+     * @param poolHits       the number of array(s) reused by the chunk pool.
+     * @param poolMisses     the number of array(s) allocated by the chunk pool.
+     * @param activeChunks   the sum of the active chunk(s) of every measured tick.
+     * @param sleepingChunks the sum of the sleeping chunk(s) of every measured tick.
+     * @param wokenChunks    the sum of the chunk(s) that became active of every measured tick.
+     * @param saveTime       the duration of saving every player (in nanoseconds).
+     * @param saveBytes      the number of byte(s) written when saving every player.
+     */
+    public SimulationReport(int players, long[] tickTimes, long allocatedBytes, long collections,
+                            long loadedChunks, long unloadedChunks, int residentChunks,
+                            long poolHits, long poolMisses, long activeChunks, long sleepingChunks,
+                            long wokenChunks, long saveTime, int saveBytes) {
+        this.mPlayers = players;
+        this.mTickTimes = tickTimes.clone();
+        this.mAllocatedBytes = allocatedBytes;
+        this.mCollections = collections;
+        this.mLoadedChunks = loadedChunks;
+        this.mUnloadedChunks = unloadedChunks;
+        this.mResidentChunks = residentChunks;
+        this.mPoolHits = poolHits;
+        this.mPoolMisses = poolMisses;
+        this.mActiveChunks = activeChunks;
+        this.mSleepingChunks = sleepingChunks;
+        this.mWokenChunks = wokenChunks;
+        this.mSaveTime = saveTime;
+        this.mSaveBytes = saveBytes;
+
+        Arrays.sort(mTickTimes);
+    }
+
+    /**
+     * Retrieves the duration of a tick at the given percentile.
+     *
+     * @param percentile the percentile (between 0 and 100).
+     *
+     * @return the duration of the tick (in nanoseconds).
+     */
+    public long getTickTime(double percentile) {
+        if (mTickTimes.length == 0) {
+            return 0L;
+        }
+        final int index = (int) Math.ceil(percentile / 100.0D * mTickTimes.length) - 1;
+        return mTickTimes[Math.max(0, Math.min(mTickTimes.length - 1, index))];
+    }
+
+    /**
+     * Retrieves the duration of the slowest tick.
+     *
+     * @return the duration of the tick (in nanoseconds).
+     */
+    public long getMaxTickTime() {
+        return mTickTimes.length == 0 ? 0L : mTickTimes[mTickTimes.length - 1];
+    }
+
+    /**
+     * Retrieves the number of byte(s) allocated per tick.
+     *
+     * @return the number of byte(s) allocated per tick, or -1 if unsupported.
+     */
+    public long getAllocationRate() {
+        return mAllocatedBytes < 0 || mTickTimes.length == 0 ? -1L : mAllocatedBytes / mTickTimes.length;
+    }
+
+    /**
+     * Retrieves the number of garbage collection(s) during the measured tick(s).
+     *
+     * @return the number of garbage collection(s).
+     */
+    public long getCollections() {
+        return mCollections;
+    }
+
+    /**
+     * Retrieves the number of chunk(s) loaded.
+     *
+     * @return the number of chunk(s) loaded.
+     */
+    public long getLoadedChunks() {
+        return mLoadedChunks;
+    }
+
+    /**
+     * Retrieves the number of chunk(s) unloaded.
+     *
+     * @return the number of chunk(s) unloaded.
+     */
+    public long getUnloadedChunks() {
+        return mUnloadedChunks;
+    }
+
+    /**
+     * Retrieves the number of active chunk(s) per tick.
+     *
+     * @return the average number of chunk(s) ticked at full rate per tick.
+     */
+    public double getActiveChunks() {
+        return mTickTimes.length == 0 ? 0.0D : (double) mActiveChunks / mTickTimes.length;
+    }
+
+    /**
+     * Retrieves the number of sleeping chunk(s) per tick.
+     *
+     * @return the average number of loaded chunk(s) not ticked per tick.
+     */
+    public double getSleepingChunks() {
+        return mTickTimes.length == 0 ? 0.0D : (double) mSleepingChunks / mTickTimes.length;
+    }
+
+    /**
+     * Retrieves the number of chunk(s) that became active per tick.
+     *
+     * @return the average number of chunk(s) that caught up per tick.
+     */
+    public double getWokenChunks() {
+        return mTickTimes.length == 0 ? 0.0D : (double) mWokenChunks / mTickTimes.length;
+    }
+
+    /**
+     * Print the report into the given stream.
+     *
+     * @param stream the stream to print into.
+     */
+    public void print(PrintStream stream) {
+        stream.printf("players            : %d%n", mPlayers);
+        stream.printf("ticks              : %d%n", mTickTimes.length);
+        stream.printf("tick p50           : %.3f ms%n", getTickTime(50.0D) / 1e6D);
+        stream.printf("tick p99           : %.3f ms%n", getTickTime(99.0D) / 1e6D);
+        stream.printf("tick max           : %.3f ms%n", getMaxTickTime() / 1e6D);
+        stream.printf("allocation         : %d bytes/tick%n", getAllocationRate());
+        stream.printf("gc collections     : %d%n", mCollections);
+        stream.printf("chunks loaded      : %d%n", mLoadedChunks);
+        stream.printf("chunks unloaded    : %d%n", mUnloadedChunks);
+        stream.printf("chunks resident    : %d%n", mResidentChunks);
+        stream.printf("chunk pool         : %d hit(s), %d miss(es)%n", mPoolHits, mPoolMisses);
+        stream.printf("chunks active      : %.1f/tick%n", getActiveChunks());
+        stream.printf("chunks sleeping    : %.1f/tick%n", getSleepingChunks());
+        stream.printf("chunks woken       : %.2f/tick%n", getWokenChunks());
+        stream.printf("save               : %.3f ms, %d bytes%n", mSaveTime / 1e6D, mSaveBytes);
+    }
+}
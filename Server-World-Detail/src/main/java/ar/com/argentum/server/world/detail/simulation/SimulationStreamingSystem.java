@@ -0,0 +1,139 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.simulation;
+
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+import com.gs.collections.api.block.procedure.Procedure;
+import com.gs.collections.impl.set.mutable.primitive.LongHashSet;
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that keeps loaded every {@linkplain Chunk} around a synthetic
+ * player, and unloads every other chunk periodically.
+ */
+public final class SimulationStreamingSystem extends IteratingSystem {
+    private final ChunkManager mManager;
+    private final int mInterval;
+    private final int mWorldChunks;
+    private final LongHashSet mWanted = new LongHashSet();
+    private final Procedure<Chunk> mUnloadProcedure = this::unloadIfUnwanted;
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private int mTick;
+    private long mUnloaded;
+
+    /**
+     * Constructor for {@link SimulationStreamingSystem}.
+     *
+     * @param manager     the manager of every chunk of the world.
+     * @param interval    the number of tick(s) between each streaming pass.
+     * @param worldChunks the length of the world (in chunks).
+     */
+    public SimulationStreamingSystem(ChunkManager manager, int interval, int worldChunks) {
+        super(Aspect.all(PositionComponent.class, SimulationBotComponent.class));
+        this.mManager = manager;
+        this.mInterval = interval;
+        this.mWorldChunks = worldChunks;
+    }
+
+    /**
+     * Retrieves the number of {@linkplain Chunk}(s) unloaded.
+     *
+     * @return the number of chunk(s) unloaded.
+     */
+    public long getUnloaded() {
+        return mUnloaded;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean checkProcessing() {
+        return ++mTick % mInterval == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void begin() {
+        mWanted.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionComponent position = mPositionMapper.get(entity);
+        final int chunkX = position.getX() >> Chunk.CHUNK_SHIFT;
+        final int chunkY = position.getY() >> Chunk.CHUNK_SHIFT;
+
+        for (int y = chunkY - 1; y <= chunkY + 1; y++) {
+            for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+                if (x >= 0 && y >= 0 && x < mWorldChunks && y < mWorldChunks && mWanted.add(getKey(x, y))) {
+                    mManager.loadChunk(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void end() {
+        mManager.forEachChunk(mUnloadProcedure);
+    }
+
+    /**
+     * Unloads the given {@linkplain Chunk} if no player is around it.
+     *
+     * @param chunk the chunk to unload.
+     */
+    private void unloadIfUnwanted(Chunk chunk) {
+        if (!mWanted.contains(getKey(chunk.getX(), chunk.getY()))) {
+            mManager.unloadChunk(chunk.getX(), chunk.getY());
+            mUnloaded++;
+        }
+    }
+
+    /**
+     * Retrieves the unique key of the given chunk coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return a number that identify the chunk.
+     */
+    private static long getKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
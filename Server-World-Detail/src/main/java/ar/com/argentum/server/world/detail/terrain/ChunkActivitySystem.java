@@ -0,0 +1,224 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.terrain;
+
+import ar.com.argentum.server.world.entity.component.PositionComponent;
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkTicker;
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+import com.gs.collections.api.block.procedure.Procedure;
+import com.gs.collections.impl.map.mutable.primitive.LongIntHashMap;
+import com.gs.collections.impl.set.mutable.primitive.LongHashSet;
+
+/**
+ * Implementation for {@linkplain IteratingSystem} that schedules every {@linkplain ChunkTicker} only over the active
+ * {@linkplain Chunk}(s) of a {@linkplain ChunkManager}.
+ * <p>
+ * A chunk is active while any player (an entity of the given aspect with a {@linkplain PositionComponent}) is within
+ * the given margin of it, and sleeps otherwise. A sleeping chunk is not ticked at all, and catches up every tick it
+ * has slept in a single step when it becomes active again. A newly loaded chunk is considered up to date.
+ */
+public final class ChunkActivitySystem extends IteratingSystem {
+    private final ChunkManager mManager;
+    private final int mMargin;
+    private final ChunkTicker[] mTickers;
+    private final LongHashSet mActive = new LongHashSet();
+    private final Procedure<Chunk> mUpdateProcedure = this::update;
+    private LongIntHashMap mLastTicks = new LongIntHashMap();
+    private LongIntHashMap mNextLastTicks = new LongIntHashMap();
+    private ComponentMapper<PositionComponent> mPositionMapper;
+    private int mTick;
+    private int mActiveChunks;
+    private int mSleepingChunks;
+    private int mWokenChunks;
+    private long mActiveChunkTicks;
+    private long mSleepingChunkTicks;
+    private long mWokenChunkTicks;
+
+    /**
+     * Constructor for {@link ChunkActivitySystem}.
+     *
+     * @param manager the manager of every chunk of the world.
+     * @param players the aspect of every player, which must require a {@linkplain PositionComponent}.
+     * @param margin  the distance (in tiles) around a player where every chunk is active.
+     * @param tickers the ticker(s) to run over every active chunk, in order.
+     */
+    public ChunkActivitySystem(ChunkManager manager, Aspect.Builder players, int margin, ChunkTicker... tickers) {
+        super(players);
+
+        if (margin < 0) {
+            throw new IllegalArgumentException("Margin must not be negative.");
+        }
+        this.mManager = manager;
+        this.mMargin = margin;
+        this.mTickers = tickers.clone();
+    }
+
+    /**
+     * Retrieves the number of active {@linkplain Chunk}(s) during the last tick.
+     *
+     * @return the number of chunk(s) ticked at full rate.
+     */
+    public int getActiveChunks() {
+        return mActiveChunks;
+    }
+
+    /**
+     * Retrieves the number of sleeping {@linkplain Chunk}(s) during the last tick.
+     *
+     * @return the number of loaded chunk(s) not ticked.
+     */
+    public int getSleepingChunks() {
+        return mSleepingChunks;
+    }
+
+    /**
+     * Retrieves the number of {@linkplain Chunk}(s) that became active during the last tick.
+     *
+     * @return the number of chunk(s) that caught up.
+     */
+    public int getWokenChunks() {
+        return mWokenChunks;
+    }
+
+    /**
+     * Retrieves the sum of the active {@linkplain Chunk}(s) of every tick.
+     *
+     * @return the number of chunk tick(s) run at full rate.
+     */
+    public long getActiveChunkTicks() {
+        return mActiveChunkTicks;
+    }
+
+    /**
+     * Retrieves the sum of the sleeping {@linkplain Chunk}(s) of every tick.
+     *
+     * @return the number of chunk tick(s) skipped.
+     */
+    public long getSleepingChunkTicks() {
+        return mSleepingChunkTicks;
+    }
+
+    /**
+     * Retrieves the sum of the {@linkplain Chunk}(s) that became active of every tick.
+     *
+     * @return the number of catch up step(s).
+     */
+    public long getWokenChunkTicks() {
+        return mWokenChunkTicks;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        mPositionMapper = world.getMapper(PositionComponent.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void begin() {
+        mTick++;
+        mActive.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void process(int entity) {
+        final PositionComponent position = mPositionMapper.get(entity);
+        final int x = position.getX();
+        final int y = position.getY();
+
+        for (int chunkY = (y - mMargin) >> Chunk.CHUNK_SHIFT; chunkY <= (y + mMargin) >> Chunk.CHUNK_SHIFT; chunkY++) {
+            for (int chunkX = (x - mMargin) >> Chunk.CHUNK_SHIFT; chunkX <= (x + mMargin) >> Chunk.CHUNK_SHIFT; chunkX++) {
+                mActive.add(getKey(chunkX, chunkY));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void end() {
+        mActiveChunks = 0;
+        mSleepingChunks = 0;
+        mWokenChunks = 0;
+
+        mManager.forEachChunk(mUpdateProcedure);
+
+        final LongIntHashMap lastTicks = mLastTicks;
+        mLastTicks = mNextLastTicks;
+        mNextLastTicks = lastTicks;
+        mNextLastTicks.clear();
+
+        mActiveChunkTicks += mActiveChunks;
+        mSleepingChunkTicks += mSleepingChunks;
+        mWokenChunkTicks += mWokenChunks;
+    }
+
+    /**
+     * Ticks the given {@linkplain Chunk} if active, catching up first if it was sleeping.
+     * <p>
+     * Only the tick of every loaded chunk is kept, so that unloaded chunk(s) are forgotten.
+     *
+     * @param chunk the chunk to update.
+     */
+    private void update(Chunk chunk) {
+        final long key = getKey(chunk.getX(), chunk.getY());
+        final int last = mLastTicks.getIfAbsent(key, mTick - 1);
+
+        if (!mActive.contains(key)) {
+            mNextLastTicks.put(key, last);
+            mSleepingChunks++;
+            return;
+        }
+
+        if (last < mTick - 1) {
+            for (ChunkTicker ticker : mTickers) {
+                ticker.catchUp(chunk, mTick - 1 - last);
+            }
+            mWokenChunks++;
+        }
+        for (ChunkTicker ticker : mTickers) {
+            ticker.tick(chunk);
+        }
+        mNextLastTicks.put(key, mTick);
+        mActiveChunks++;
+    }
+
+    /**
+     * Retrieves the unique key of the given chunk coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return a number that identify the chunk.
+     */
+    private static long getKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.terrain;
+
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import com.gs.collections.impl.map.mutable.primitive.IntObjectHashMap;
+
+import java.util.Optional;
+
+/**
+ * Encapsulate every {@linkplain InstancedChunkManager} created over a shared base terrain.
+ */
+public final class ChunkInstanceRegistry {
+    private final IntObjectHashMap<InstancedChunkManager> mInstances = new IntObjectHashMap<>();
+    private final ChunkManager mBase;
+    private final ChunkPool mPool;
+    private int mNextInstance;
+
+    /**
+     * Constructor for {@link ChunkInstanceRegistry}.
+     *
+     * @param base the manager of every chunk of the base terrain.
+     * @param pool the pool that recycles the arrays owned by every instance.
+     */
+    public ChunkInstanceRegistry(ChunkManager base, ChunkPool pool) {
+        this.mBase = base;
+        this.mPool = pool;
+    }
+
+    /**
+     * Retrieves the {@linkplain ChunkManager} of the base terrain.
+     *
+     * @return the manager of every chunk of the base terrain.
+     */
+    public ChunkManager getBase() {
+        return mBase;
+    }
+
+    /**
+     * Creates a new instance of the base terrain.
+     *
+     * @return the manager of every chunk of the new instance.
+     */
+    public InstancedChunkManager create() {
+        return create(null);
+    }
+
+    /**
+     * Creates a new instance of the base terrain.
+     *
+     * @param bus the bus every chunk of the instance is attached to (nullable).
+     *
+     * @return the manager of every chunk of the new instance.
+     */
+    public synchronized InstancedChunkManager create(ChunkChangeBus bus) {
+        final InstancedChunkManager manager = new InstancedChunkManager(mNextInstance++, mBase, mPool, bus);
+
+        mInstances.put(manager.getInstance(), manager);
+        return manager;
+    }
+
+    /**
+     * Destroys the instance with the given identifier, unloading every chunk of it.
+     *
+     * @param instance the unique identifier of the instance.
+     *
+     * @return true if the instance was destroyed, false if there is no instance with the given identifier.
+     */
+    public boolean destroy(int instance) {
+        final InstancedChunkManager manager;
+
+        synchronized (this) {
+            manager = mInstances.remove(instance);
+        }
+
+        if (manager == null) {
+            return false;
+        }
+        manager.dispose();
+        return true;
+    }
+
+    /**
+     * Retrieves the instance with the given identifier.
+     *
+     * @param instance the unique identifier of the instance.
+     *
+     * @return an {@linkplain Optional} reference of the manager of every chunk of the instance.
+     */
+    public synchronized Optional<InstancedChunkManager> getInstance(int instance) {
+        return Optional.ofNullable(mInstances.get(instance));
+    }
+
+    /**
+     * Retrieves the number of instance(s) alive.
+     *
+     * @return the number of instance(s) that were created and not destroyed.
+     */
+    public synchronized int size() {
+        return mInstances.size();
+    }
+
+    /**
+     * Retrieves the estimated number of byte(s) owned by every instance.
+     *
+     * @return the number of byte(s) owned by every instance.
+     *
+     * @see InstancedChunkManager#getOwnedBytes()
+     */
+    public synchronized long getOwnedBytes() {
+        return mInstances.sumOfLong(InstancedChunkManager::getOwnedBytes);
+    }
+
+    /**
+     * Retrieves the number of byte(s) of every shared layer of the base terrain.
+     *
+     * @return the number of byte(s) of the base terrain, shared by every instance.
+     */
+    public long getBaseBytes() {
+        final int layers = Integer.bitCount(InstancedChunkManager.SHARED_LAYERS);
+
+        return mBase.getChunkStream(false).count() * layers * InstancedChunkManager.LAYER_BYTES;
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.terrain;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+import com.gs.collections.api.block.procedure.Procedure;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Concurrent map of every loaded {@linkplain Chunk}, keyed by the packed coordinates of the chunk.
+ * <p>
+ * Every bucket is a chain of immutable node(s) published through a volatile table, so a lookup or a traversal never
+ * locks, boxes its key nor allocates; only a load or an unload takes the monitor of the map. A traversal is weakly
+ * consistent: chunk(s) loaded or unloaded while traversing may or may not be reported, but no chunk is reported
+ * twice, since a traversal keeps the table and the chain(s) it started with.
+ */
+final class ConcurrentChunkMap {
+    /**
+     * Define the initial number of bucket(s) of the map.
+     */
+    private final static int INITIAL_CAPACITY = 64;
+
+    private volatile AtomicReferenceArray<Node> mTable = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private volatile int mSize;
+
+    /**
+     * Retrieves the {@linkplain Chunk} at the given coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return the chunk at the given coordinates, or null if is not loaded.
+     */
+    public Chunk get(int x, int y) {
+        final long key = getKey(x, y);
+        final AtomicReferenceArray<Node> table = mTable;
+
+        for (Node node = table.get(getIndex(key, table.length())); node != null; node = node.mNext) {
+            if (node.mKey == key) {
+                return node.mChunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts the given {@linkplain Chunk} if there isn't any chunk at its coordinates.
+     *
+     * @param chunk the chunk to put.
+     *
+     * @return the chunk at the coordinates of the given chunk, which is the given chunk if it was put.
+     */
+    public synchronized Chunk putIfAbsent(Chunk chunk) {
+        final long key = getKey(chunk.getX(), chunk.getY());
+        final AtomicReferenceArray<Node> table = mTable;
+        final int index = getIndex(key, table.length());
+        final Node head = table.get(index);
+
+        for (Node node = head; node != null; node = node.mNext) {
+            if (node.mKey == key) {
+                return node.mChunk;
+            }
+        }
+        table.set(index, new Node(key, chunk, head));
+
+        if (++mSize > (table.length() >> 1) + (table.length() >> 2)) {
+            resize(table);
+        }
+        return chunk;
+    }
+
+    /**
+     * Removes the {@linkplain Chunk} at the given coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return the removed chunk, or null if wasn't loaded.
+     */
+    public synchronized Chunk remove(int x, int y) {
+        final long key = getKey(x, y);
+        final AtomicReferenceArray<Node> table = mTable;
+        final int index = getIndex(key, table.length());
+        final Node head = table.get(index);
+
+        for (Node node = head; node != null; node = node.mNext) {
+            if (node.mKey == key) {
+                // The node(s) before the removed one are copied, since a traversal may still walk the old chain.
+                Node chain = node.mNext;
+
+                for (Node previous = head; previous != node; previous = previous.mNext) {
+                    chain = new Node(previous.mKey, previous.mChunk, chain);
+                }
+                table.set(index, chain);
+                mSize--;
+                return node.mChunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the number of loaded {@linkplain Chunk}(s).
+     *
+     * @return the number of chunk(s) in the map.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Executes the given {@linkplain Procedure} for every {@linkplain Chunk} in the map, without copying them.
+     *
+     * @param procedure the procedure to execute for every chunk.
+     */
+    public void forEach(Procedure<? super Chunk> procedure) {
+        final AtomicReferenceArray<Node> table = mTable;
+
+        for (int index = 0, length = table.length(); index < length; index++) {
+            for (Node node = table.get(index); node != null; node = node.mNext) {
+                procedure.value(node.mChunk);
+            }
+        }
+    }
+
+    /**
+     * Retrieves a weakly consistent {@linkplain Spliterator} over every {@linkplain Chunk} in the map, without
+     * copying them.
+     *
+     * @return a spliterator over every chunk.
+     */
+    public Spliterator<Chunk> spliterator() {
+        final AtomicReferenceArray<Node> table = mTable;
+
+        return new ChunkSpliterator(table, 0, table.length(), mSize);
+    }
+
+    /**
+     * Moves every node of the given table into a table of twice its length.
+     *
+     * @param table the table to grow.
+     */
+    private void resize(AtomicReferenceArray<Node> table) {
+        final AtomicReferenceArray<Node> resized = new AtomicReferenceArray<>(table.length() << 1);
+
+        for (int index = 0, length = table.length(); index < length; index++) {
+            for (Node node = table.get(index); node != null; node = node.mNext) {
+                final int destination = getIndex(node.mKey, resized.length());
+
+                resized.set(destination, new Node(node.mKey, node.mChunk, resized.get(destination)));
+            }
+        }
+        mTable = resized;
+    }
+
+    /**
+     * Retrieves the unique key of the given chunk coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return a number that identify the chunk.
+     */
+    private static long getKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retrieves the bucket of the given key.
+     *
+     * @param key    the key of the chunk.
+     * @param length the number of bucket(s) of the table (power of two).
+     *
+     * @return the index of the bucket of the key.
+     */
+    private static int getIndex(long key, int length) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (length - 1);
+    }
+
+    /**
+     * Encapsulate an immutable entry of a bucket.
+     */
+    private final static class Node {
+        private final long mKey;
+        private final Chunk mChunk;
+        private final Node mNext;
+
+        /**
+         * Constructor for {@link Node}.
+         *
+         * @param key   the key of the chunk.
+         * @param chunk the chunk of the entry.
+         * @param next  the next entry of the bucket (nullable).
+         */
+        private Node(long key, Chunk chunk, Node next) {
+            this.mKey = key;
+            this.mChunk = chunk;
+            this.mNext = next;
+        }
+    }
+
+    /**
+     * Encapsulate a {@linkplain Spliterator} over a range of bucket(s) of a single table.
+     */
+    private final static class ChunkSpliterator implements Spliterator<Chunk> {
+        private final AtomicReferenceArray<Node> mTable;
+        private final int mFence;
+        private int mIndex;
+        private Node mNode;
+        private long mEstimate;
+
+        /**
+         * Constructor for {@link ChunkSpliterator}.
+         *
+         * @param table    the table to traverse.
+         * @param index    the first bucket to traverse (inclusive).
+         * @param fence    the last bucket to traverse (exclusive).
+         * @param estimate the estimated number of chunk(s) in the range.
+         */
+        private ChunkSpliterator(AtomicReferenceArray<Node> table, int index, int fence, long estimate) {
+            this.mTable = table;
+            this.mIndex = index;
+            this.mFence = fence;
+            this.mEstimate = estimate;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super Chunk> action) {
+            while (mNode == null) {
+                if (mIndex >= mFence) {
+                    return false;
+                }
+                mNode = mTable.get(mIndex++);
+            }
+            action.accept(mNode.mChunk);
+            mNode = mNode.mNext;
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super Chunk> action) {
+            for (Node node = mNode; node != null; node = node.mNext) {
+                action.accept(node.mChunk);
+            }
+            mNode = null;
+
+            for (; mIndex < mFence; mIndex++) {
+                for (Node node = mTable.get(mIndex); node != null; node = node.mNext) {
+                    action.accept(node.mChunk);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Spliterator<Chunk> trySplit() {
+            final int middle = (mIndex + mFence) >>> 1;
+
+            if (middle <= mIndex) {
+                return null;
+            }
+
+            final Spliterator<Chunk> prefix = new ChunkSpliterator(mTable, mIndex, middle, mEstimate >>>= 1);
+            mIndex = middle;
+            return prefix;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long estimateSize() {
+            return mEstimate;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT;
+        }
+    }
+}
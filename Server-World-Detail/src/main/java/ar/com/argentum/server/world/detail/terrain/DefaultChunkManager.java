@@ -0,0 +1,278 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.terrain;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkGenerator;
+import ar.com.argentum.server.world.terrain.ChunkLayerInterner;
+import ar.com.argentum.server.world.terrain.ChunkLayout;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.procedure.Procedure;
+import com.gs.collections.api.collection.ImmutableCollection;
+import com.gs.collections.impl.list.mutable.FastList;
+
+import java.util.Optional;
+import java.util.Spliterator;
+
+/**
+ * Default implementation for {@linkplain ChunkManager}, which keeps every loaded {@linkplain Chunk} in memory and
+ * creates them using a {@linkplain ChunkGenerator}.
+ * <p>
+ * Every chunk is kept in a {@linkplain ConcurrentChunkMap}, so that a lookup neither locks, boxes its key nor
+ * allocates, and every traversal is weakly consistent without copying the loaded chunk(s); the given procedure may
+ * load or unload chunk(s).
+ */
+public final class DefaultChunkManager implements ChunkManager {
+    private final ConcurrentChunkMap mChunks = new ConcurrentChunkMap();
+    private final ChunkGenerator mGenerator;
+    private final ChunkPool mPool;
+    private final ChunkChangeBus mBus;
+    private final ChunkLayout mLayout;
+    private final ChunkLayerInterner mInterner;
+
+    /**
+     * Constructor for {@link DefaultChunkManager}.
+     *
+     * @param generator the generator for every new chunk.
+     * @param pool      the pool that recycles the arrays of every chunk.
+     */
+    public DefaultChunkManager(ChunkGenerator generator, ChunkPool pool) {
+        this(generator, pool, null);
+    }
+
+    /**
+     * Constructor for {@link DefaultChunkManager}.
+     *
+     * @param generator the generator for every new chunk.
+     * @param pool      the pool that recycles the arrays of every chunk.
+     * @param bus       the bus every loaded chunk is attached to (nullable).
+     */
+    public DefaultChunkManager(ChunkGenerator generator, ChunkPool pool, ChunkChangeBus bus) {
+        this(generator, pool, bus, ChunkLayout.LINEAR);
+    }
+
+    /**
+     * Constructor for {@link DefaultChunkManager}.
+     *
+     * @param generator the generator for every new chunk.
+     * @param pool      the pool that recycles the arrays of every chunk.
+     * @param bus       the bus every loaded chunk is attached to (nullable).
+     * @param layout    the layout of the tiles of every new chunk.
+     */
+    public DefaultChunkManager(ChunkGenerator generator, ChunkPool pool, ChunkChangeBus bus, ChunkLayout layout) {
+        this(generator, pool, bus, layout, null);
+    }
+
+    /**
+     * Constructor for {@link DefaultChunkManager}.
+     *
+     * @param generator the generator for every new chunk.
+     * @param pool      the pool that recycles the arrays of every chunk.
+     * @param bus       the bus every loaded chunk is attached to (nullable).
+     * @param layout    the layout of the tiles of every new chunk.
+     * @param interner  the interner that deduplicates the layers of every new chunk (nullable).
+     */
+    public DefaultChunkManager(ChunkGenerator generator, ChunkPool pool, ChunkChangeBus bus, ChunkLayout layout,
+                               ChunkLayerInterner interner) {
+        this.mGenerator = generator;
+        this.mPool = pool;
+        this.mBus = bus;
+        this.mLayout = layout;
+        this.mInterner = interner;
+    }
+
+    /**
+     * Retrieves the {@linkplain ChunkPool} of the manager.
+     *
+     * @return the pool that recycles the arrays of every chunk.
+     */
+    public ChunkPool getPool() {
+        return mPool;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isChunkLoaded(int x, int y) {
+        return findChunk(x, y) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isChunkDisposable(int x, int y) {
+        final Chunk chunk = findChunk(x, y);
+
+        return chunk != null && chunk.isDisposable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunk(int x, int y) {
+        return getChunk(x, y, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunk(int x, int y, boolean loadIfUnloaded) {
+        final Chunk chunk = findChunk(x, y);
+
+        if (chunk == null && loadIfUnloaded) {
+            return loadChunk(x, y);
+        }
+        return Optional.ofNullable(chunk);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Chunk findChunk(int x, int y) {
+        return mChunks.get(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunkAt(int x, int y) {
+        return getChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunkAt(int x, int y, boolean loadIfUnloaded) {
+        return getChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT, loadIfUnloaded);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableCollection<Chunk> getAvailableChunks() {
+        return getSnapshot().toImmutable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableCollection<Chunk> getAvailableChunks(Predicate<Chunk> predicate) {
+        return getSnapshot().select(predicate).toImmutable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<Chunk> getChunkSpliterator() {
+        return mChunks.spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachChunk(Procedure<? super Chunk> procedure) {
+        mChunks.forEach(procedure);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> loadChunk(int x, int y) {
+        final Chunk chunk = findChunk(x, y);
+
+        if (chunk != null) {
+            return Optional.of(chunk);
+        }
+
+        final Chunk created = mPool.obtain(x, y, mLayout);
+        mGenerator.generate(created);
+
+        if (mInterner != null) {
+            mInterner.intern(created);
+        }
+
+        final Chunk previous = mChunks.putIfAbsent(created);
+
+        if (previous != created) {
+            mPool.free(created);
+            return Optional.of(previous);
+        }
+        if (mBus != null) {
+            mBus.attach(created);
+        }
+        return Optional.of(created);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> loadChunkAt(int x, int y) {
+        return loadChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The backing arrays of the chunk are given back to the {@linkplain ChunkPool}, so the returned chunk is only
+     * valid for identification.
+     */
+    @Override
+    public Optional<Chunk> unloadChunk(int x, int y) {
+        final Chunk chunk = mChunks.remove(x, y);
+
+        if (chunk != null) {
+            mPool.free(chunk);
+        }
+        return Optional.ofNullable(chunk);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> unloadChunkAt(int x, int y) {
+        return unloadChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+
+    /**
+     * Retrieves a list of every loaded {@linkplain Chunk}.
+     *
+     * @return a new list that contain(s) every loaded chunk.
+     */
+    private FastList<Chunk> getSnapshot() {
+        final FastList<Chunk> chunks = FastList.newList(mChunks.size());
+        mChunks.forEach(chunks::add);
+        return chunks;
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.detail.terrain;
+
+import ar.com.argentum.server.world.terrain.Chunk;
+import ar.com.argentum.server.world.terrain.ChunkChangeBus;
+import ar.com.argentum.server.world.terrain.ChunkManager;
+import ar.com.argentum.server.world.terrain.ChunkPool;
+import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.procedure.Procedure;
+import com.gs.collections.api.collection.ImmutableCollection;
+import com.gs.collections.impl.list.mutable.FastList;
+
+import java.util.Optional;
+import java.util.Spliterator;
+
+/**
+ * Implementation for {@linkplain ChunkManager} of a single instance of the world (e.g a dungeon for a party), which
+ * overlays every {@linkplain Chunk} of a shared base terrain.
+ * <p>
+ * Every chunk of the instance shares the tile, item and property layers of the base chunk, and copies a layer on
+ * its first write; a mostly untouched instance only owns its entity layer(s) and item stack(s). The base chunk copies
+ * a shared layer on its own next write and never recycles it, so the base terrain may be modified or unloaded while
+ * shared, and every instance keeps the terrain as it was when the chunk was overlaid.
+ */
+public final class InstancedChunkManager implements ChunkManager {
+    /**
+     * Define the layer(s) of a {@linkplain Chunk} shared with the base terrain.
+     */
+    public final static int SHARED_LAYERS = Chunk.LAYER_TILE | Chunk.LAYER_ITEM | Chunk.LAYER_PROPERTY;
+
+    /**
+     * Define the number of byte(s) of a single layer of a {@linkplain Chunk}.
+     */
+    public final static int LAYER_BYTES = Chunk.CHUNK_LENGTH * Integer.BYTES;
+
+    /**
+     * Define the estimated number of byte(s) of the item stack(s) of a littered tile.
+     */
+    private final static int LITTERED_TILE_BYTES = 32;
+
+    private final ConcurrentChunkMap mChunks = new ConcurrentChunkMap();
+    private final int mInstance;
+    private final ChunkManager mBase;
+    private final ChunkPool mPool;
+    private final ChunkChangeBus mBus;
+    private volatile boolean mDisposed;
+
+    /**
+     * Constructor for {@link InstancedChunkManager}.
+     *
+     * @param instance the unique identifier of the instance.
+     * @param base     the manager of every chunk of the base terrain.
+     * @param pool     the pool that recycles the arrays owned by every chunk.
+     * @param bus      the bus every loaded chunk is attached to (nullable).
+     */
+    public InstancedChunkManager(int instance, ChunkManager base, ChunkPool pool, ChunkChangeBus bus) {
+        this.mInstance = instance;
+        this.mBase = base;
+        this.mPool = pool;
+        this.mBus = bus;
+    }
+
+    /**
+     * Retrieves the unique identifier of the instance.
+     *
+     * @return the identifier of the instance.
+     */
+    public int getInstance() {
+        return mInstance;
+    }
+
+    /**
+     * Retrieves the {@linkplain ChunkManager} of the base terrain.
+     *
+     * @return the manager of every chunk of the base terrain.
+     */
+    public ChunkManager getBase() {
+        return mBase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isChunkLoaded(int x, int y) {
+        return mChunks.get(x, y) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isChunkDisposable(int x, int y) {
+        final Chunk chunk = mChunks.get(x, y);
+
+        return chunk != null && chunk.isDisposable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunk(int x, int y) {
+        return getChunk(x, y, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunk(int x, int y, boolean loadIfUnloaded) {
+        final Chunk chunk = mChunks.get(x, y);
+
+        if (chunk == null && loadIfUnloaded) {
+            return loadChunk(x, y);
+        }
+        return Optional.ofNullable(chunk);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Chunk findChunk(int x, int y) {
+        return mChunks.get(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunkAt(int x, int y) {
+        return getChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> getChunkAt(int x, int y, boolean loadIfUnloaded) {
+        return getChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT, loadIfUnloaded);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableCollection<Chunk> getAvailableChunks() {
+        return getSnapshot().toImmutable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableCollection<Chunk> getAvailableChunks(Predicate<Chunk> predicate) {
+        return getSnapshot().select(predicate).toImmutable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<Chunk> getChunkSpliterator() {
+        return mChunks.spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachChunk(Procedure<? super Chunk> procedure) {
+        mChunks.forEach(procedure);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> loadChunk(int x, int y) {
+        final Chunk chunk = mChunks.get(x, y);
+
+        if (chunk != null) {
+            return Optional.of(chunk);
+        }
+        if (mDisposed) {
+            return Optional.empty();
+        }
+
+        final Chunk base = mBase.getChunk(x, y, true).orElse(null);
+
+        if (base == null) {
+            return Optional.empty();
+        }
+
+        final Chunk created = mPool.obtainOverlay(base);
+
+        if (mBus != null) {
+            mBus.attach(created);
+        }
+
+        final Chunk previous = mChunks.putIfAbsent(created);
+
+        if (previous != created) {
+            mPool.free(created);
+            return Optional.of(previous);
+        }
+
+        // A concurrent dispose() may have traversed the chunk(s) before the chunk was put, so it is unloaded here;
+        // if dispose() did reach it, the chunk was already removed and is only freed once.
+        if (mDisposed) {
+            unloadChunk(x, y);
+            return Optional.empty();
+        }
+        return Optional.of(created);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> loadChunkAt(int x, int y) {
+        return loadChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The backing arrays owned by the chunk are given back to the {@linkplain ChunkPool}, so the returned chunk is
+     * only valid for identification. The base chunk stays loaded.
+     */
+    @Override
+    public Optional<Chunk> unloadChunk(int x, int y) {
+        final Chunk chunk = mChunks.remove(x, y);
+
+        if (chunk != null) {
+            mPool.free(chunk);
+        }
+        return Optional.ofNullable(chunk);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Chunk> unloadChunkAt(int x, int y) {
+        return unloadChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+
+    /**
+     * Unloads every {@linkplain Chunk} of the instance, and prevents any further chunk from being loaded.
+     * <p>
+     * A chunk being loaded concurrently is unloaded by {@linkplain #loadChunk(int, int)} itself once it sees the
+     * instance disposed.
+     */
+    public void dispose() {
+        mDisposed = true;
+
+        mChunks.forEach(chunk -> unloadChunk(chunk.getX(), chunk.getY()));
+    }
+
+    /**
+     * Check whenever the instance has been disposed.
+     *
+     * @return true if the instance cannot load any chunk anymore, false otherwise.
+     */
+    public boolean isDisposed() {
+        return mDisposed;
+    }
+
+    /**
+     * Retrieves the number of layer(s) that were copied from the base terrain on their first write.
+     *
+     * @return the number of copied layer(s) of every loaded chunk.
+     */
+    public int getCopiedLayers() {
+        return getChunkStream(false)
+                .mapToInt(chunk -> Integer.bitCount(SHARED_LAYERS & ~chunk.getSharedLayers()))
+                .sum();
+    }
+
+    /**
+     * Retrieves the estimated number of byte(s) owned by the instance, which excludes every layer still shared with
+     * the base terrain.
+     *
+     * @return the number of byte(s) of the entity layer, every copied layer and every item stack of every loaded
+     * chunk.
+     */
+    public long getOwnedBytes() {
+        return getChunkStream(false).mapToLong(InstancedChunkManager::getOwnedBytes).sum();
+    }
+
+    /**
+     * Retrieves the estimated number of byte(s) owned by the given {@linkplain Chunk}.
+     *
+     * @param chunk the chunk to measure.
+     *
+     * @return the number of byte(s) of the entity layer, every copied layer and every item stack of the chunk.
+     */
+    public static long getOwnedBytes(Chunk chunk) {
+        final int copied = Integer.bitCount(SHARED_LAYERS & ~chunk.getSharedLayers());
+        long bytes = (long) (copied + 1) * LAYER_BYTES;
+
+        if (!chunk.isShared(Chunk.LAYER_ITEM)) {
+            for (int item : chunk.getItems()) {
+                if (item != 0) {
+                    bytes += LITTERED_TILE_BYTES;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Retrieves a list of every loaded {@linkplain Chunk}.
+     *
+     * @return a new list that contain(s) every loaded chunk.
+     */
+    private FastList<Chunk> getSnapshot() {
+        final FastList<Chunk> chunks = FastList.newList(mChunks.size());
+        mChunks.forEach(chunks::add);
+        return chunks;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.entity.component;
+
+import ar.com.argentum.server.world.entity.Alignment;
+import ar.com.argentum.server.world.entity.Gender;
+import ar.com.argentum.server.world.entity.Race;
+import ar.com.argentum.server.world.entity.Religion;
+import com.artemis.Component;
+
+/**
+ * Encapsulate a {@linkplain Component} which encapsulate the {@linkplain Race}, {@linkplain Gender},
+ * {@linkplain Alignment} and {@linkplain Religion} of a character.
+ */
+public final class CharacterComponent extends Component {
+    private Race mRace;
+    private Gender mGender;
+    private Alignment mAlignment;
+    private Religion mReligion;
+
+    /**
+     * Constructor for {@linkplain CharacterComponent}.
+     */
+    public CharacterComponent() {
+        this(null, Gender.VALUES[0], Alignment.NEUTRAL, null);
+    }
+
+    /**
+     * Constructor for {@linkplain CharacterComponent}.
+     *
+     * @param race      the {@linkplain Race} of the character (nullable).
+     * @param gender    the {@linkplain Gender} of the character.
+     * @param alignment the {@linkplain Alignment} of the character.
+     * @param religion  the {@linkplain Religion} of the character (nullable).
+     */
+    public CharacterComponent(Race race, Gender gender, Alignment alignment, Religion religion) {
+        this.mRace = race;
+        this.mGender = gender;
+        this.mAlignment = alignment;
+        this.mReligion = religion;
+    }
+
+    /**
+     * Retrieves the {@linkplain Race} of the {@linkplain Component}.
+     *
+     * @return the race of the component, or null if absent.
+     */
+    public Race getRace() {
+        return mRace;
+    }
+
+    /**
+     * Changes the {@linkplain Race} of the {@linkplain Component}.
+     *
+     * @param race the new race of the component (nullable).
+     */
+    public void setRace(Race race) {
+        mRace = race;
+    }
+
+    /**
+     * Retrieves the {@linkplain Gender} of the {@linkplain Component}.
+     *
+     * @return the gender of the component.
+     */
+    public Gender getGender() {
+        return mGender;
+    }
+
+    /**
+     * Changes the {@linkplain Gender} of the {@linkplain Component}.
+     *
+     * @param gender the new gender of the component.
+     */
+    public void setGender(Gender gender) {
+        mGender = gender;
+    }
+
+    /**
+     * Retrieves the {@linkplain Alignment} of the {@linkplain Component}.
+     *
+     * @return the alignment of the component.
+     */
+    public Alignment getAlignment() {
+        return mAlignment;
+    }
+
+    /**
+     * Changes the {@linkplain Alignment} of the {@linkplain Component}.
+     *
+     * @param alignment the new alignment of the component.
+     */
+    public void setAlignment(Alignment alignment) {
+        mAlignment = alignment;
+    }
+
+    /**
+     * Retrieves the {@linkplain Religion} of the {@linkplain Component}.
+     *
+     * @return the religion of the component, or null if absent.
+     */
+    public Religion getReligion() {
+        return mReligion;
+    }
+
+    /**
+     * Changes the {@linkplain Religion} of the {@linkplain Component}.
+     *
+     * @param religion the new religion of the component (nullable).
+     */
+    public void setReligion(Religion religion) {
+        mReligion = religion;
+    }
+}
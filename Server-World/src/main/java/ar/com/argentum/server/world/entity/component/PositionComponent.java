@@ -79,4 +79,15 @@ public final class PositionComponent extends Component {
     public void setY(int y) {
         mY = y;
     }
+
+    /**
+     * Changes both coordinates (in world coordinates).
+     *
+     * @param x the new x coordinate (in world coordinates).
+     * @param y the new y coordinate (in world coordinates).
+     */
+    public void set(int x, int y) {
+        mX = x;
+        mY = y;
+    }
 }
\ No newline at end of file
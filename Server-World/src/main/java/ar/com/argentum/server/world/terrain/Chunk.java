@@ -17,6 +17,9 @@
  */
 package ar.com.argentum.server.world.terrain;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 /**
  * {@link Chunk}s are segments of the world containing a group of tiles.
  */
@@ -26,23 +29,74 @@ public final class Chunk {
      */
     public final static int CHUNK_BIT = 64;
 
+    /**
+     * Define the number of bit(s) for shifting world coordinates into chunk coordinates.
+     */
+    public final static int CHUNK_SHIFT = 6;
+
+    /**
+     * Define the mask for retrieving relative coordinates from world coordinates.
+     */
+    public final static int CHUNK_MASK = CHUNK_BIT - 1;
+
     /**
      * Define the length of the chunk.
      */
     public final static int CHUNK_LENGTH = CHUNK_BIT * CHUNK_BIT;
 
+    /**
+     * Define the number of bit(s) required to represent a linear position within the chunk.
+     */
+    public final static int CHUNK_LENGTH_BIT = 12;
+
     /**
      * Represent the property of a tile that is blocked.
      */
     public final static int TILE_PROPERTY_BLOCKED = 1;
 
+    /**
+     * Represent a tile that is not occupied by any entity.
+     */
+    public final static int NO_ENTITY = -1;
+
+    /**
+     * Represent the tile layer of the chunk.
+     */
+    public final static int LAYER_TILE = 1;
+
+    /**
+     * Represent the entity layer of the chunk.
+     */
+    public final static int LAYER_ENTITY = 1 << 1;
+
+    /**
+     * Represent the item layer of the chunk.
+     */
+    public final static int LAYER_ITEM = 1 << 2;
+
+    /**
+     * Represent the property layer of the chunk.
+     */
+    public final static int LAYER_PROPERTY = 1 << 3;
+
+    /**
+     * Represent every layer of the chunk.
+     */
+    public final static int LAYER_ALL = LAYER_TILE | LAYER_ENTITY | LAYER_ITEM | LAYER_PROPERTY;
+
     private boolean mDisposable;
+    private boolean mReleased;
+    private ChunkChangeBus mBus;
+    volatile ChunkChangeBatch mBatch;
     private final int mX;
     private final int mY;
-    private final int[] mTiles;
-    private final int[] mEntities;
-    private final int[] mItems;
-    private final int[] mProperties;
+    private final ChunkLayout mLayout;
+    private int[] mTiles;
+    private final AtomicIntegerArray mEntities;
+    private int[] mItems;
+    private int[] mProperties;
+    private ChunkItemStorage mItemStorage;
+    private int mSharedLayers;
 
     /**
      * Constructor for {@link Chunk}.
@@ -51,7 +105,19 @@ public final class Chunk {
      * @param y the y coordinate of the chunk within the world.
      */
     public Chunk(int x, int y) {
-        this(x, y, new int[CHUNK_LENGTH], new int[CHUNK_LENGTH], new int[CHUNK_LENGTH], new int[CHUNK_LENGTH]);
+        this(x, y, ChunkLayout.LINEAR);
+    }
+
+    /**
+     * Constructor for {@link Chunk}.
+     *
+     * @param x      the x coordinate of the chunk within the world.
+     * @param y      the y coordinate of the chunk within the world.
+     * @param layout the layout of the tiles within the chunk.
+     */
+    public Chunk(int x, int y, ChunkLayout layout) {
+        this(x, y, layout,
+                new int[CHUNK_LENGTH], createEntities(), new int[CHUNK_LENGTH], new int[CHUNK_LENGTH]);
     }
 
     /**
@@ -60,18 +126,84 @@ public final class Chunk {
      * @param x          the x coordinate of the chunk within the world.
      * @param y          the y coordinate of the chunk within the world.
      * @param tiles      a collection that contains every terrain in the chunk.
-     * @param entities   a collection that contains every entity in the chunk.
+     * @param entities   a collection that contains every entity in the chunk (copied), 0 for a free tile.
      * @param properties a collection that contains every properties in the chunk.
      */
     public Chunk(int x, int y, int[] tiles, int[] entities, int[] items, int[] properties) {
+        this(x, y, ChunkLayout.LINEAR, tiles, entities, items, properties);
+    }
+
+    /**
+     * Constructor for {@link Chunk}.
+     *
+     * @param x          the x coordinate of the chunk within the world.
+     * @param y          the y coordinate of the chunk within the world.
+     * @param layout     the layout of the tiles within every collection.
+     * @param tiles      a collection that contains every terrain in the chunk.
+     * @param entities   a collection that contains every entity in the chunk (copied), 0 for a free tile.
+     * @param items      a collection that contains every item in the chunk.
+     * @param properties a collection that contains every properties in the chunk.
+     */
+    public Chunk(int x, int y, ChunkLayout layout, int[] tiles, int[] entities, int[] items, int[] properties) {
+        this(x, y, layout, tiles, createEntities(entities), items, properties);
+    }
+
+    /**
+     * Constructor for {@link Chunk}.
+     *
+     * @param x          the x coordinate of the chunk within the world.
+     * @param y          the y coordinate of the chunk within the world.
+     * @param layout     the layout of the tiles within every collection.
+     * @param tiles      a collection that contains every terrain in the chunk.
+     * @param entities   a collection that contains every entity in the chunk.
+     * @param items      a collection that contains every item in the chunk.
+     * @param properties a collection that contains every properties in the chunk.
+     */
+    public Chunk(int x, int y, ChunkLayout layout,
+                 int[] tiles, AtomicIntegerArray entities, int[] items, int[] properties) {
         this.mX = x;
         this.mY = y;
+        this.mLayout = layout;
         this.mTiles = tiles;
         this.mEntities = entities;
         this.mItems = items;
         this.mProperties = properties;
     }
 
+    /**
+     * Creates a {@link Chunk} that shares the tile, item and property layers of the given chunk, every shared layer
+     * is copied on its first write. The entity layer is never shared.
+     * <p>
+     * The layers are marked as shared on both chunks, so the given chunk also copies a layer on its next write and
+     * never gives a shared array back to a {@linkplain ChunkPool}; the overlay keeps the layers as they were when
+     * created, even if the given chunk is modified or unloaded. The overlay must be created by the thread that
+     * modifies the given chunk, and every item stack of it is seen as a single item.
+     *
+     * @param base the chunk whose layers are shared.
+     *
+     * @return a new chunk at the coordinates of the given chunk.
+     */
+    public static Chunk createOverlay(Chunk base) {
+        return createOverlay(base, createEntities());
+    }
+
+    /**
+     * Creates a {@link Chunk} that shares the tile, item and property layers of the given chunk.
+     *
+     * @param base     the chunk whose layers are shared.
+     * @param entities a collection that contains every entity in the chunk.
+     *
+     * @return a new chunk at the coordinates of the given chunk.
+     */
+    static Chunk createOverlay(Chunk base, AtomicIntegerArray entities) {
+        final Chunk chunk = new Chunk(base.mX, base.mY, base.mLayout,
+                base.mTiles, entities, base.mItems, base.mProperties);
+
+        chunk.mSharedLayers = LAYER_TILE | LAYER_ITEM | LAYER_PROPERTY;
+        base.mSharedLayers |= LAYER_TILE | LAYER_ITEM | LAYER_PROPERTY;
+        return chunk;
+    }
+
     /**
      * Retrieves the x coordinate of the chunk (in world coordinates).
      *
@@ -90,6 +222,17 @@ public final class Chunk {
         return mY;
     }
 
+    /**
+     * Retrieves the {@linkplain ChunkLayout} of the tiles within the chunk.
+     * <p>
+     * Every array returned by the chunk is ordered by this layout.
+     *
+     * @return the layout of the chunk.
+     */
+    public ChunkLayout getLayout() {
+        return mLayout;
+    }
+
     /**
      * Change the disposable flag of the chunk.
      *
@@ -108,6 +251,90 @@ public final class Chunk {
         return mDisposable;
     }
 
+    /**
+     * Check whenever the chunk has been given back to a {@linkplain ChunkPool}.
+     *
+     * @return true if the backing arrays of the chunk may be reused by another chunk, false otherwise.
+     */
+    public boolean isReleased() {
+        return mReleased;
+    }
+
+    /**
+     * Mark the chunk as given back to a {@linkplain ChunkPool}.
+     */
+    void setReleased() {
+        mReleased = true;
+    }
+
+    /**
+     * Retrieves the layer(s) whose backing array is shared with another chunk, and copied on its first write.
+     * <p>
+     * The backing array of a shared layer must not be modified directly.
+     *
+     * @return the shared layer(s) of the chunk (e.g {@linkplain #LAYER_TILE}).
+     */
+    public int getSharedLayers() {
+        return mSharedLayers;
+    }
+
+    /**
+     * Check whenever the backing array of the given layer is shared with another chunk.
+     *
+     * @param layer the layer of the chunk (e.g {@linkplain #LAYER_TILE}).
+     *
+     * @return true if the layer is copied on its first write, false otherwise.
+     */
+    public boolean isShared(int layer) {
+        return (mSharedLayers & layer) != 0;
+    }
+
+    /**
+     * Replaces the backing array of the given layer with an array shared with other chunk(s), which is copied on its
+     * first write.
+     *
+     * @param layer the layer of the chunk (either {@linkplain #LAYER_TILE} or {@linkplain #LAYER_PROPERTY}).
+     * @param array the shared array, whose content must be equal to the content of the layer.
+     *
+     * @return the previous backing array of the layer.
+     */
+    int[] shareLayer(int layer, int[] array) {
+        final int[] previous;
+
+        switch (layer) {
+            case LAYER_TILE:
+                previous = mTiles;
+                mTiles = array;
+                break;
+            case LAYER_PROPERTY:
+                previous = mProperties;
+                mProperties = array;
+                break;
+            default:
+                throw new IllegalArgumentException("Only tile and property layers can be shared.");
+        }
+        mSharedLayers |= layer;
+        return previous;
+    }
+
+    /**
+     * Retrieves the {@linkplain ChunkChangeBus} the chunk is attached to.
+     *
+     * @return the bus that records the changes of the chunk, or null if the chunk is not attached.
+     */
+    public ChunkChangeBus getChangeBus() {
+        return mBus;
+    }
+
+    /**
+     * Changes the {@linkplain ChunkChangeBus} the chunk is attached to.
+     *
+     * @param bus the bus that records the changes of the chunk.
+     */
+    void setChangeBus(ChunkChangeBus bus) {
+        mBus = bus;
+    }
+
     /**
      * Check whenever the given coordinates are blocked.
      *
@@ -130,11 +357,17 @@ public final class Chunk {
     public void setBlocked(int x, int y, boolean isBlocked) {
         final int position = getTilePosition(x, y);
 
+        if ((mSharedLayers & LAYER_PROPERTY) != 0) {
+            copyLayer(LAYER_PROPERTY);
+        }
+        final int property = mProperties[position];
+
         if (isBlocked) {
             mProperties[position] |= TILE_PROPERTY_BLOCKED;
         } else {
             mProperties[position] &= ~TILE_PROPERTY_BLOCKED;
         }
+        onChange(LAYER_PROPERTY, position, property, mProperties[position]);
     }
 
     /**
@@ -145,7 +378,15 @@ public final class Chunk {
      * @param id the unique identifier of the terrain.
      */
     public void setProperty(int x, int y, int id) {
-        mProperties[getTilePosition(x, y)] = id;
+        final int position = getTilePosition(x, y);
+
+        if ((mSharedLayers & LAYER_PROPERTY) != 0) {
+            copyLayer(LAYER_PROPERTY);
+        }
+        final int previous = mProperties[position];
+
+        mProperties[position] = id;
+        onChange(LAYER_PROPERTY, position, previous, id);
     }
 
     /**
@@ -177,7 +418,15 @@ public final class Chunk {
      * @param id the unique identifier of the terrain.
      */
     public void setTile(int x, int y, int id) {
-        mTiles[getTilePosition(x, y)] = id;
+        final int position = getTilePosition(x, y);
+
+        if ((mSharedLayers & LAYER_TILE) != 0) {
+            copyLayer(LAYER_TILE);
+        }
+        final int previous = mTiles[position];
+
+        mTiles[position] = id;
+        onChange(LAYER_TILE, position, previous, id);
     }
 
     /**
@@ -206,10 +455,80 @@ public final class Chunk {
      *
      * @param x  the x coordinates (in relative coordinates).
      * @param y  the y coordinates (in relative coordinates).
-     * @param id the unique identifier of the entity.
+     * @param id the unique identifier of the entity, or {@linkplain #NO_ENTITY} to free the tile (0 is a valid
+     *           entity).
      */
     public void setEntity(int x, int y, int id) {
-        mEntities[getTilePosition(x, y)] = id;
+        final int position = getTilePosition(x, y);
+
+        onChange(LAYER_ENTITY, position, mEntities.getAndSet(position, id), id);
+    }
+
+    /**
+     * Atomically claim the tile at the given coordinate for the given entity.
+     *
+     * @param x      the x coordinates (in relative coordinates).
+     * @param y      the y coordinates (in relative coordinates).
+     * @param entity the unique identifier of the entity.
+     *
+     * @return true if the tile was free and is now occupied by the entity, false otherwise.
+     */
+    public boolean tryClaim(int x, int y, int entity) {
+        final int position = getTilePosition(x, y);
+
+        if (mEntities.compareAndSet(position, NO_ENTITY, entity)) {
+            onChange(LAYER_ENTITY, position, NO_ENTITY, entity);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Atomically release the tile at the given coordinate if occupied by the given entity.
+     *
+     * @param x      the x coordinates (in relative coordinates).
+     * @param y      the y coordinates (in relative coordinates).
+     * @param entity the unique identifier of the entity.
+     *
+     * @return true if the tile was occupied by the entity and is now free, false otherwise.
+     */
+    public boolean release(int x, int y, int entity) {
+        final int position = getTilePosition(x, y);
+
+        if (mEntities.compareAndSet(position, entity, NO_ENTITY)) {
+            onChange(LAYER_ENTITY, position, entity, NO_ENTITY);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Atomically moves an entity between two tiles, which may belong to different {@linkplain Chunk}(s).
+     * <p>
+     * The destination is claimed before the source is released, so a tile is never occupied by two entities and
+     * the entity never loses its tile. The entity occupies both tiles for a short moment.
+     *
+     * @param source      the chunk of the source tile.
+     * @param sourceX     the x coordinates of the source tile (in relative coordinates).
+     * @param sourceY     the y coordinates of the source tile (in relative coordinates).
+     * @param destination the chunk of the destination tile.
+     * @param x           the x coordinates of the destination tile (in relative coordinates).
+     * @param y           the y coordinates of the destination tile (in relative coordinates).
+     * @param entity      the unique identifier of the entity.
+     *
+     * @return true if the entity was moved, false if the destination is occupied or the entity does not occupy
+     * the source.
+     */
+    public static boolean tryMove(Chunk source, int sourceX, int sourceY, Chunk destination, int x, int y,
+                                  int entity) {
+        if (!destination.tryClaim(x, y, entity)) {
+            return false;
+        }
+        if (!source.release(sourceX, sourceY, entity)) {
+            destination.release(x, y, entity);
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -218,18 +537,45 @@ public final class Chunk {
      * @param x the x coordinates (in relative coordinates).
      * @param y the y coordinates (in relative coordinates).
      *
-     * @return the identifier of the entity at the given coordinates.
+     * @return the identifier of the entity at the given coordinates, or {@linkplain #NO_ENTITY} if free.
      */
     public int getEntity(int x, int y) {
-        return mEntities[getTilePosition(x, y)];
+        return mEntities.get(getTilePosition(x, y));
     }
 
     /**
      * Retrieves all entities from the chunk.
+     * <p>
+     * The returned array is a new copy, see {@linkplain #getEntities(int[])} for reusing an array.
      *
-     * @return an array that contain(s) all entities of the chunk.
+     * @return an array that contain(s) all entities of the chunk, {@linkplain #NO_ENTITY} for a free tile.
      */
     public int[] getEntities() {
+        return getEntities(new int[CHUNK_LENGTH]);
+    }
+
+    /**
+     * Copies all entities from the chunk into the given array.
+     * <p>
+     * Every claim made afterwards is not reflected in the array.
+     *
+     * @param destination the array where to copy every entity, of at least {@linkplain #CHUNK_LENGTH} element(s).
+     *
+     * @return the given array, that contain(s) all entities of the chunk, {@linkplain #NO_ENTITY} for a free tile.
+     */
+    public int[] getEntities(int[] destination) {
+        for (int i = 0; i < CHUNK_LENGTH; i++) {
+            destination[i] = mEntities.get(i);
+        }
+        return destination;
+    }
+
+    /**
+     * Retrieves the backing array of the entity layer.
+     *
+     * @return an array that contain(s) all entities of the chunk, {@linkplain #NO_ENTITY} for a free tile.
+     */
+    AtomicIntegerArray getEntityArray() {
         return mEntities;
     }
 
@@ -241,7 +587,128 @@ public final class Chunk {
      * @param id the unique identifier of the item.
      */
     public void setItem(int x, int y, int id) {
-        mItems[getTilePosition(x, y)] = id;
+        final int position = getTilePosition(x, y);
+
+        if ((mSharedLayers & LAYER_ITEM) != 0) {
+            copyLayer(LAYER_ITEM);
+        }
+        final int previous = mItems[position];
+
+        if (mItemStorage != null) {
+            mItemStorage.clear(position);
+
+            if (id != 0) {
+                mItemStorage.add(position, id, 1);
+            }
+        }
+        mItems[position] = id;
+        onChange(LAYER_ITEM, position, previous, id);
+    }
+
+    /**
+     * Adds an amount of the given item at the given coordinate.
+     * <p>
+     * The item layer keeps the identifier of the first stack of the tile.
+     *
+     * @param x      the x coordinates (in relative coordinates).
+     * @param y      the y coordinates (in relative coordinates).
+     * @param id     the unique identifier of the item.
+     * @param amount the amount of the item to add.
+     *
+     * @return the amount of the item at the given coordinates after adding.
+     */
+    public int addItem(int x, int y, int id, int amount) {
+        final int position = getTilePosition(x, y);
+        final int total = getItemStorage().add(position, id, amount);
+
+        onItemStorageChange(position);
+        return total;
+    }
+
+    /**
+     * Removes an amount of the given item at the given coordinate.
+     *
+     * @param x      the x coordinates (in relative coordinates).
+     * @param y      the y coordinates (in relative coordinates).
+     * @param id     the unique identifier of the item.
+     * @param amount the amount of the item to remove.
+     *
+     * @return the amount of the item that was removed.
+     */
+    public int removeItem(int x, int y, int id, int amount) {
+        final int position = getTilePosition(x, y);
+        final int removed = getItemStorage().remove(position, id, amount);
+
+        onItemStorageChange(position);
+        return removed;
+    }
+
+    /**
+     * Retrieves the amount of the given item at the given coordinates.
+     *
+     * @param x  the x coordinates (in relative coordinates).
+     * @param y  the y coordinates (in relative coordinates).
+     * @param id the unique identifier of the item.
+     *
+     * @return the amount of the item at the given coordinates.
+     */
+    public int getItemAmount(int x, int y, int id) {
+        final int position = getTilePosition(x, y);
+
+        if (mItemStorage == null) {
+            return id != 0 && mItems[position] == id ? 1 : 0;
+        }
+        return mItemStorage.getAmountOf(position, id);
+    }
+
+    /**
+     * Executes the given {@linkplain ChunkItemProcedure} for every item stack within the given rectangle.
+     *
+     * @param x         the x coordinates of the rectangle (in relative coordinates).
+     * @param y         the y coordinates of the rectangle (in relative coordinates).
+     * @param width     the width of the rectangle.
+     * @param height    the height of the rectangle.
+     * @param procedure the procedure to execute for every stack.
+     */
+    public void forEachItem(int x, int y, int width, int height, ChunkItemProcedure procedure) {
+        checkRegion(x, y, width, height);
+
+        if (mItemStorage != null) {
+            mItemStorage.forEach(x, y, width, height, procedure);
+            return;
+        }
+
+        for (int row = y; row < y + height; row++) {
+            for (int column = x; column < x + width; column++) {
+                final int id = mItems[mLayout.getPosition(column, row)];
+
+                if (id != 0) {
+                    procedure.value(column, row, id, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the {@linkplain ChunkItemStorage} of the chunk, creating it from the item layer if required.
+     * <p>
+     * The storage can only be read; stacks are changed through {@linkplain #addItem}, {@linkplain #removeItem} and
+     * {@linkplain #setItem}, which keep the item layer and the {@linkplain ChunkChangeBus} in sync.
+     *
+     * @return the storage that contain(s) every item stack of the chunk.
+     */
+    public ChunkItemStorage getItemStorage() {
+        if (mItemStorage == null) {
+            final ChunkItemStorage storage = new ChunkItemStorage(mLayout);
+
+            for (int position = 0; position < CHUNK_LENGTH; position++) {
+                if (mItems[position] != 0) {
+                    storage.add(position, mItems[position], 1);
+                }
+            }
+            mItemStorage = storage;
+        }
+        return mItemStorage;
     }
 
     /**
@@ -265,6 +732,343 @@ public final class Chunk {
         return mItems;
     }
 
+    /**
+     * Retrieves the backing array of the given layer.
+     * <p>
+     * The entity layer is not backed by a plain array, see {@linkplain #getEntities()}.
+     *
+     * @param layer the layer of the chunk (e.g {@linkplain #LAYER_TILE}).
+     *
+     * @return an array that contain(s) all values of the layer.
+     */
+    public int[] getLayer(int layer) {
+        switch (layer) {
+            case LAYER_TILE:
+                return mTiles;
+            case LAYER_ITEM:
+                return mItems;
+            case LAYER_PROPERTY:
+                return mProperties;
+        }
+        throw new IllegalArgumentException("Layer is unsupported");
+    }
+
+    /**
+     * Copies a rectangle of the given layer into the given array.
+     * <p>
+     * A free tile of the entity layer is copied as {@linkplain #NO_ENTITY}.
+     *
+     * @param layer       the layer of the chunk (e.g {@linkplain #LAYER_TILE}).
+     * @param x           the x coordinates of the rectangle (in relative coordinates).
+     * @param y           the y coordinates of the rectangle (in relative coordinates).
+     * @param width       the width of the rectangle.
+     * @param height      the height of the rectangle.
+     * @param destination the array where to copy the rectangle.
+     * @param offset      the index within the array of the first tile.
+     * @param stride      the distance within the array between two rows.
+     */
+    public void read(int layer, int x, int y, int width, int height, int[] destination, int offset, int stride) {
+        checkRegion(x, y, width, height);
+
+        if (layer == LAYER_ENTITY) {
+            for (int row = 0; row < height; row++, offset += stride) {
+                for (int column = 0; column < width; column++) {
+                    destination[offset + column] = mEntities.get(mLayout.getPosition(x + column, y + row));
+                }
+            }
+            return;
+        }
+
+        final int[] source = getLayer(layer);
+
+        for (int row = 0; row < height; row++, offset += stride) {
+            if (mLayout == ChunkLayout.LINEAR) {
+                System.arraycopy(source, ((y + row) << CHUNK_SHIFT) | x, destination, offset, width);
+            } else {
+                for (int column = 0; column < width; column++) {
+                    destination[offset + column] = source[mLayout.getPosition(x + column, y + row)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the given array into a rectangle of the given layer.
+     * <p>
+     * Writing the item layer resets every stack of the rectangle to a single item, as {@linkplain #setItem} does.
+     * A tile of the entity layer is freed by {@linkplain #NO_ENTITY}, not 0.
+     *
+     * @param layer  the layer of the chunk (e.g {@linkplain #LAYER_TILE}).
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param source the array where to copy the rectangle from.
+     * @param offset the index within the array of the first tile.
+     * @param stride the distance within the array between two rows.
+     */
+    public void write(int layer, int x, int y, int width, int height, int[] source, int offset, int stride) {
+        checkRegion(x, y, width, height);
+
+        if ((mSharedLayers & layer) != 0) {
+            copyLayer(layer);
+        }
+        final int[] destination = layer == LAYER_ENTITY ? null : getLayer(layer);
+
+        for (int row = 0; row < height; row++, offset += stride) {
+            if (destination == null) {
+                for (int column = 0; column < width; column++) {
+                    mEntities.set(mLayout.getPosition(x + column, y + row), source[offset + column]);
+                }
+            } else if (mLayout == ChunkLayout.LINEAR) {
+                System.arraycopy(source, offset, destination, ((y + row) << CHUNK_SHIFT) | x, width);
+            } else {
+                for (int column = 0; column < width; column++) {
+                    destination[mLayout.getPosition(x + column, y + row)] = source[offset + column];
+                }
+            }
+        }
+
+        if (layer == LAYER_ITEM) {
+            resetItemStacks(x, y, width, height);
+        }
+
+        if (mBus != null) {
+            mBus.recordRegion(this, layer, x, y, width, height);
+        }
+    }
+
+    /**
+     * Changes every tile within a rectangle of the given layer to the given value.
+     * <p>
+     * Filling the item layer resets every stack of the rectangle to a single item, as {@linkplain #setItem} does.
+     * A tile of the entity layer is freed by {@linkplain #NO_ENTITY}, not 0.
+     *
+     * @param layer  the layer of the chunk (e.g {@linkplain #LAYER_TILE}).
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param value  the new value of every tile.
+     */
+    public void fill(int layer, int x, int y, int width, int height, int value) {
+        checkRegion(x, y, width, height);
+
+        if ((mSharedLayers & layer) != 0) {
+            copyLayer(layer);
+        }
+        final int[] destination = layer == LAYER_ENTITY ? null : getLayer(layer);
+
+        for (int row = 0; row < height; row++) {
+            if (destination == null) {
+                for (int column = 0; column < width; column++) {
+                    mEntities.set(mLayout.getPosition(x + column, y + row), value);
+                }
+            } else if (mLayout == ChunkLayout.LINEAR) {
+                final int position = ((y + row) << CHUNK_SHIFT) | x;
+
+                Arrays.fill(destination, position, position + width, value);
+            } else {
+                for (int column = 0; column < width; column++) {
+                    destination[mLayout.getPosition(x + column, y + row)] = value;
+                }
+            }
+        }
+
+        if (layer == LAYER_ITEM) {
+            resetItemStacks(x, y, width, height);
+        }
+
+        if (mBus != null) {
+            mBus.recordRegion(this, layer, x, y, width, height);
+        }
+    }
+
+    /**
+     * Set the given bit(s) of the property of every tile within a rectangle.
+     *
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param mask   the bit(s) to set (e.g {@linkplain #TILE_PROPERTY_BLOCKED}).
+     */
+    public void setPropertyMask(int x, int y, int width, int height, int mask) {
+        updateProperties(x, y, width, height, 0, mask);
+    }
+
+    /**
+     * Clear the given bit(s) of the property of every tile within a rectangle.
+     *
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param mask   the bit(s) to clear (e.g {@linkplain #TILE_PROPERTY_BLOCKED}).
+     */
+    public void clearPropertyMask(int x, int y, int width, int height, int mask) {
+        updateProperties(x, y, width, height, mask, 0);
+    }
+
+    /**
+     * Clear and then set the given bit(s) of the property of every tile within a rectangle.
+     * <p>
+     * The rectangle is only recorded if any property has changed.
+     *
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param clear  the bit(s) to clear.
+     * @param set    the bit(s) to set.
+     */
+    private void updateProperties(int x, int y, int width, int height, int clear, int set) {
+        checkRegion(x, y, width, height);
+
+        if ((mSharedLayers & LAYER_PROPERTY) != 0) {
+            copyLayer(LAYER_PROPERTY);
+        }
+        int changes = 0;
+
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                final int position = mLayout.getPosition(x + column, y + row);
+                final int previous = mProperties[position];
+                final int current = (previous & ~clear) | set;
+
+                mProperties[position] = current;
+                changes |= previous ^ current;
+            }
+        }
+
+        if (mBus != null && changes != 0) {
+            mBus.recordRegion(this, LAYER_PROPERTY, x, y, width, height);
+        }
+    }
+
+    /**
+     * Resets every stack within a rectangle to a single item of the item layer, after a bulk change of it.
+     *
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     */
+    private void resetItemStacks(int x, int y, int width, int height) {
+        if (mItemStorage == null) {
+            return;
+        }
+
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                final int position = mLayout.getPosition(x + column, y + row);
+
+                if (mItemStorage.getCount(position) != 0) {
+                    mItemStorage.clear(position);
+                }
+                if (mItems[position] != 0) {
+                    mItemStorage.add(position, mItems[position], 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the item layer after a change of the {@linkplain ChunkItemStorage}.
+     * <p>
+     * The change is always recorded, since the amount of a stack may change without changing the item layer.
+     *
+     * @param position the linear position of the tile.
+     */
+    private void onItemStorageChange(int position) {
+        if ((mSharedLayers & LAYER_ITEM) != 0) {
+            copyLayer(LAYER_ITEM);
+        }
+        mItems[position] = mItemStorage.getTop(position);
+
+        if (mBus != null) {
+            mBus.record(this, LAYER_ITEM, position);
+        }
+    }
+
+    /**
+     * Copies the shared backing array of the given layer, so that it can be modified.
+     *
+     * @param layer the layer of the chunk (e.g {@linkplain #LAYER_TILE}).
+     */
+    private void copyLayer(int layer) {
+        switch (layer) {
+            case LAYER_TILE:
+                mTiles = mTiles.clone();
+                break;
+            case LAYER_ITEM:
+                mItems = mItems.clone();
+                break;
+            case LAYER_PROPERTY:
+                mProperties = mProperties.clone();
+                break;
+        }
+        mSharedLayers &= ~layer;
+    }
+
+    /**
+     * Record the change of a tile into the {@linkplain ChunkChangeBus} (if attached).
+     *
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile.
+     * @param previous the previous value of the tile.
+     * @param current  the current value of the tile.
+     */
+    private void onChange(int layer, int position, int previous, int current) {
+        if (mBus != null && previous != current) {
+            mBus.record(this, layer, position);
+        }
+    }
+
+    /**
+     * Creates an entity layer with every tile free.
+     *
+     * @return an array that contain(s) {@linkplain #NO_ENTITY} for every tile.
+     */
+    static AtomicIntegerArray createEntities() {
+        final AtomicIntegerArray entities = new AtomicIntegerArray(CHUNK_LENGTH);
+
+        for (int i = 0; i < CHUNK_LENGTH; i++) {
+            entities.lazySet(i, NO_ENTITY);
+        }
+        return entities;
+    }
+
+    /**
+     * Creates the entity layer of a chunk from a legacy collection, where a free tile is 0.
+     *
+     * @param entities a collection that contains every entity in the chunk, 0 for a free tile.
+     *
+     * @return a new array that contain(s) every entity, {@linkplain #NO_ENTITY} for a free tile.
+     */
+    private static AtomicIntegerArray createEntities(int[] entities) {
+        final AtomicIntegerArray array = new AtomicIntegerArray(CHUNK_LENGTH);
+
+        for (int i = 0; i < CHUNK_LENGTH; i++) {
+            array.lazySet(i, entities[i] == 0 ? NO_ENTITY : entities[i]);
+        }
+        return array;
+    }
+
+    /**
+     * Check whenever the given rectangle is within the chunk.
+     *
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     */
+    private static void checkRegion(int x, int y, int width, int height) {
+        if (((x | y | width | height) < 0) || x + width > CHUNK_BIT || y + height > CHUNK_BIT) {
+            throw new IllegalArgumentException("Given region within chunk is out of bound.");
+        }
+    }
+
     /**
      * Retrieves the relative position in relative coordinates from the given chunk coordinates.
      *
@@ -273,10 +1077,10 @@ public final class Chunk {
      *
      * @return a linear representation of the position.
      */
-    private int getTilePosition(int x, int y) {
-        if (x < 0 || y < 0 || x > CHUNK_BIT || y > CHUNK_BIT) {
+    public int getTilePosition(int x, int y) {
+        if (((x | y) & ~CHUNK_MASK) != 0) {
             throw new IllegalArgumentException("Given position within chunk is out of bound.");
         }
-        return (y * CHUNK_BIT) + x;
+        return mLayout.getPosition(x, y);
     }
 }
\ No newline at end of file
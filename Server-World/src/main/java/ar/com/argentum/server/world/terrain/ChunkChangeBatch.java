@@ -0,0 +1,231 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Encapsulate every change of a {@linkplain Chunk} that happened between two dispatch(es).
+ * <p>
+ * A change of the same tile on the same layer is only recorded once. Changes are recorded into a bitmap without
+ * locking, which is drained into the change(s) of the batch by every dispatch, so the change(s) are ordered by layer
+ * and position rather than by time.
+ */
+public final class ChunkChangeBatch {
+    /**
+     * Define the number of layer(s) tracked by the batch.
+     */
+    private final static int LAYER_COUNT = 4;
+
+    private Chunk mChunk;
+    private boolean mDispatching;
+    private final AtomicBoolean mPending = new AtomicBoolean();
+    private final AtomicLongArray mRecords;
+    private int mLayers;
+    private int mSize;
+    private int[] mChanges;
+    private final long[] mMarks;
+
+    /**
+     * Constructor for {@link ChunkChangeBatch}.
+     */
+    ChunkChangeBatch() {
+        this.mRecords = new AtomicLongArray((LAYER_COUNT * Chunk.CHUNK_LENGTH) >>> 6);
+        this.mChanges = new int[64];
+        this.mMarks = new long[mRecords.length()];
+    }
+
+    /**
+     * Retrieves the {@linkplain Chunk} that has changed.
+     *
+     * @return the chunk that owns the changes.
+     */
+    public Chunk getChunk() {
+        return mChunk;
+    }
+
+    /**
+     * Retrieves all layer(s) that has changed.
+     *
+     * @return a mask of every layer that contain(s) at least one change.
+     */
+    public int getLayers() {
+        return mLayers;
+    }
+
+    /**
+     * Retrieves the number of change(s) in the batch.
+     *
+     * @return the number of change(s).
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Retrieves the layer of the change at the given index.
+     *
+     * @param index the index of the change.
+     *
+     * @return the layer of the change.
+     */
+    public int getLayer(int index) {
+        return 1 << (mChanges[index] >>> Chunk.CHUNK_LENGTH_BIT);
+    }
+
+    /**
+     * Retrieves the linear position of the change at the given index.
+     *
+     * @param index the index of the change.
+     *
+     * @return the linear position of the tile within the chunk.
+     */
+    public int getPosition(int index) {
+        return mChanges[index] & (Chunk.CHUNK_LENGTH - 1);
+    }
+
+    /**
+     * Check whenever the tile at the given linear position has changed on the given layer.
+     *
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile within the chunk.
+     *
+     * @return true if the tile has changed, false otherwise.
+     */
+    public boolean contains(int layer, int position) {
+        final int change = getChange(layer, position);
+
+        return (mMarks[change >>> 6] & (1L << change)) != 0;
+    }
+
+    /**
+     * Prepares the batch for recording the change(s) of the given {@linkplain Chunk}.
+     *
+     * @param chunk the chunk that owns the batch.
+     */
+    void reset(Chunk chunk) {
+        mChunk = chunk;
+        mLayers = 0;
+        mSize = 0;
+        mPending.set(false);
+
+        for (int i = 0, j = mRecords.length(); i < j; i++) {
+            mRecords.set(i, 0L);
+        }
+        Arrays.fill(mMarks, 0L);
+    }
+
+    /**
+     * Record a change of the given layer, which may be called by any thread without locking.
+     *
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile within the chunk.
+     *
+     * @return true if the change was not recorded since the last dispatch, false otherwise.
+     */
+    boolean record(int layer, int position) {
+        final int change = getChange(layer, position);
+        final int word = change >>> 6;
+        final long mark = 1L << change;
+
+        long records;
+
+        do {
+            records = mRecords.get(word);
+
+            if ((records & mark) != 0) {
+                return false;
+            }
+        } while (!mRecords.compareAndSet(word, records, records | mark));
+
+        return true;
+    }
+
+    /**
+     * Marks the batch as pending for the next dispatch.
+     *
+     * @return true if the batch wasn't pending and must be enqueued by the caller, false otherwise.
+     */
+    boolean setPending() {
+        return !mPending.get() && mPending.compareAndSet(false, true);
+    }
+
+    /**
+     * Moves every change recorded since the last dispatch into the change(s) of the batch.
+     * <p>
+     * The batch is no longer pending before any record is drained, so a change recorded afterwards enqueues the
+     * batch again for the next dispatch.
+     */
+    void drain() {
+        mPending.set(false);
+        mLayers = 0;
+        mSize = 0;
+
+        for (int word = 0, length = mRecords.length(); word < length; word++) {
+            long records = mRecords.get(word);
+
+            if (records != 0) {
+                records = mRecords.getAndSet(word, 0L);
+            }
+            mMarks[word] = records;
+
+            while (records != 0) {
+                final int change = (word << 6) | Long.numberOfTrailingZeros(records);
+
+                if (mSize == mChanges.length) {
+                    mChanges = Arrays.copyOf(mChanges, mSize << 1);
+                }
+                mChanges[mSize++] = change;
+                mLayers |= 1 << (change >>> Chunk.CHUNK_LENGTH_BIT);
+                records &= records - 1;
+            }
+        }
+    }
+
+    /**
+     * Check whenever the batch is being dispatched.
+     *
+     * @return true if the batch is being delivered to the listener(s), false otherwise.
+     */
+    boolean isDispatching() {
+        return mDispatching;
+    }
+
+    /**
+     * Changes whenever the batch is being dispatched.
+     *
+     * @param dispatching true if the batch is being delivered to the listener(s), false otherwise.
+     */
+    void setDispatching(boolean dispatching) {
+        mDispatching = dispatching;
+    }
+
+    /**
+     * Retrieves the packed representation of a change.
+     *
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile within the chunk.
+     *
+     * @return the packed representation of the change.
+     */
+    private static int getChange(int layer, int position) {
+        return (Integer.numberOfTrailingZeros(layer) << Chunk.CHUNK_LENGTH_BIT) | position;
+    }
+}
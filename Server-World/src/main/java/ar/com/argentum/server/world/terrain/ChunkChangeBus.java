@@ -0,0 +1,233 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import com.gs.collections.impl.list.mutable.FastList;
+
+import java.util.Arrays;
+
+/**
+ * Represents a bus which accumulates the change(s) of every attached {@linkplain Chunk} into batches, and
+ * dispatch(es) each batch once per tick to every registered {@linkplain ChunkListener}.
+ * <p>
+ * Batches are recycled between dispatch(es), so a steady state does not allocate. Recording a change never takes the
+ * monitor of the bus; it is only taken once per chunk when its batch is created, and once per chunk per dispatch
+ * when the batch is enqueued.
+ */
+public final class ChunkChangeBus {
+    private volatile ChunkListener[] mListeners = new ChunkListener[0];
+    private final Object mDispatchLock = new Object();
+    private final FastList<ChunkChangeBatch> mFreeBatches = FastList.newList();
+    private FastList<ChunkChangeBatch> mPendingBatches = FastList.newList();
+    private FastList<ChunkChangeBatch> mDispatchBatches = FastList.newList();
+
+    /**
+     * Register a {@linkplain ChunkListener}.
+     *
+     * @param listener the listener to register.
+     */
+    public synchronized void register(ChunkListener listener) {
+        final ChunkListener[] listeners = Arrays.copyOf(mListeners, mListeners.length + 1);
+        listeners[mListeners.length] = listener;
+        mListeners = listeners;
+    }
+
+    /**
+     * Unregister a {@linkplain ChunkListener}.
+     *
+     * @param listener the listener to unregister.
+     */
+    public synchronized void unregister(ChunkListener listener) {
+        for (int i = 0; i < mListeners.length; i++) {
+            if (mListeners[i] == listener) {
+                final ChunkListener[] listeners = new ChunkListener[mListeners.length - 1];
+                System.arraycopy(mListeners, 0, listeners, 0, i);
+                System.arraycopy(mListeners, i + 1, listeners, i, listeners.length - i);
+                mListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attach the given {@linkplain Chunk} to the bus, any further change of the chunk will be recorded.
+     *
+     * @param chunk the chunk to attach.
+     */
+    public void attach(Chunk chunk) {
+        chunk.setChangeBus(this);
+    }
+
+    /**
+     * Detach the given {@linkplain Chunk} from the bus, any pending change of the chunk is discarded.
+     *
+     * @param chunk the chunk to detach.
+     */
+    public synchronized void detach(Chunk chunk) {
+        final ChunkChangeBatch batch = chunk.mBatch;
+
+        if (batch != null) {
+            chunk.mBatch = null;
+            mPendingBatches.remove(batch);
+
+            // A batch being dispatched is recycled once the dispatch is done.
+            if (!batch.isDispatching()) {
+                mFreeBatches.add(batch);
+            }
+        }
+        chunk.setChangeBus(null);
+    }
+
+    /**
+     * Dispatch every pending batch to the registered {@linkplain ChunkListener}(s).
+     * <p>
+     * Changes made while dispatching (e.g by a listener) are delivered in the next dispatch. Dispatch(es) called
+     * from different threads are serialized.
+     */
+    public void dispatch() {
+        synchronized (mDispatchLock) {
+            final FastList<ChunkChangeBatch> batches;
+            final ChunkListener[] listeners;
+
+            synchronized (this) {
+                if (mPendingBatches.isEmpty()) {
+                    return;
+                }
+                batches = mPendingBatches;
+                mPendingBatches = mDispatchBatches;
+                mDispatchBatches = batches;
+
+                for (int i = 0, j = batches.size(); i < j; i++) {
+                    batches.get(i).setDispatching(true);
+                }
+                listeners = mListeners;
+            }
+
+            for (int i = 0, j = batches.size(); i < j; i++) {
+                final ChunkChangeBatch batch = batches.get(i);
+                batch.drain();
+
+                for (ChunkListener listener : listeners) {
+                    if ((listener.getLayers() & batch.getLayers()) != 0) {
+                        listener.onChunkChange(batch);
+                    }
+                }
+            }
+
+            synchronized (this) {
+                for (int i = 0, j = batches.size(); i < j; i++) {
+                    final ChunkChangeBatch batch = batches.get(i);
+                    batch.setDispatching(false);
+
+                    if (batch.getChunk().mBatch != batch) {
+                        mFreeBatches.add(batch);
+                    }
+                }
+                batches.clear();
+            }
+        }
+    }
+
+    /**
+     * Record a change of the given {@linkplain Chunk}, without locking.
+     *
+     * @param chunk    the chunk that has changed.
+     * @param layer    the layer of the change.
+     * @param position the linear position of the tile within the chunk.
+     */
+    void record(Chunk chunk, int layer, int position) {
+        final ChunkChangeBatch batch = getBatch(chunk);
+
+        if (batch.record(layer, position)) {
+            enqueue(batch);
+        }
+    }
+
+    /**
+     * Record a change of every tile within a rectangle of the given {@linkplain Chunk}, without locking.
+     *
+     * @param chunk  the chunk that has changed.
+     * @param layer  the layer of the change.
+     * @param x      the x coordinates of the rectangle (in relative coordinates).
+     * @param y      the y coordinates of the rectangle (in relative coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     */
+    void recordRegion(Chunk chunk, int layer, int x, int y, int width, int height) {
+        final ChunkLayout layout = chunk.getLayout();
+        final ChunkChangeBatch batch = getBatch(chunk);
+
+        boolean isRecorded = false;
+
+        for (int row = y; row < y + height; row++) {
+            for (int column = x; column < x + width; column++) {
+                isRecorded |= batch.record(layer, layout.getPosition(column, row));
+            }
+        }
+
+        if (isRecorded) {
+            enqueue(batch);
+        }
+    }
+
+    /**
+     * Retrieves the {@linkplain ChunkChangeBatch} of the given {@linkplain Chunk}, creating it if required.
+     *
+     * @param chunk the chunk that has changed.
+     *
+     * @return the batch that accumulates every change of the chunk while attached.
+     */
+    private ChunkChangeBatch getBatch(Chunk chunk) {
+        final ChunkChangeBatch batch = chunk.mBatch;
+
+        return batch != null ? batch : createBatch(chunk);
+    }
+
+    /**
+     * Creates the {@linkplain ChunkChangeBatch} of the given {@linkplain Chunk}, unless another thread did.
+     *
+     * @param chunk the chunk that has changed.
+     *
+     * @return the batch that accumulates every change of the chunk while attached.
+     */
+    private synchronized ChunkChangeBatch createBatch(Chunk chunk) {
+        ChunkChangeBatch batch = chunk.mBatch;
+
+        if (batch == null) {
+            batch = mFreeBatches.isEmpty() ? new ChunkChangeBatch() : mFreeBatches.remove(mFreeBatches.size() - 1);
+            batch.reset(chunk);
+            chunk.mBatch = batch;
+        }
+        return batch;
+    }
+
+    /**
+     * Enqueue the given {@linkplain ChunkChangeBatch} for the next dispatch, unless it is already pending.
+     *
+     * @param batch the batch that has recorded a change.
+     */
+    private void enqueue(ChunkChangeBatch batch) {
+        if (batch.setPending()) {
+            synchronized (this) {
+                if (batch.getChunk().mBatch == batch) {
+                    mPendingBatches.add(batch);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+/**
+ * Represents a generator which fills the content of a {@linkplain Chunk} when is loaded.
+ */
+public interface ChunkGenerator {
+    /**
+     * Generates the content of the given {@linkplain Chunk}.
+     * <p>
+     * The chunk is given with all layer(s) cleared.
+     *
+     * @param chunk the chunk to generate.
+     */
+    void generate(Chunk chunk);
+}
@@ -0,0 +1,413 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import com.gs.collections.impl.map.mutable.primitive.IntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Encapsulate the item stack(s) of every tile within a {@linkplain Chunk}.
+ * <p>
+ * Every tile holds a compact list of stack(s), each one packed as the identifier of the item (high bits) and its
+ * amount (low bits). Littered tiles are kept in sparse array(s) indexed through a primitive map keyed by position,
+ * and the storage switches to a dense array once the chunk is heavily littered.
+ * <p>
+ * The storage is only changed through its {@linkplain Chunk}, so that the item layer and the
+ * {@linkplain ChunkChangeBus} are kept in sync.
+ */
+public final class ChunkItemStorage {
+    /**
+     * Define the number of littered tile(s) from where the storage becomes dense.
+     */
+    public final static int DENSE_THRESHOLD = Chunk.CHUNK_LENGTH / 8;
+
+    /**
+     * Define the number of littered tile(s) from where the storage becomes sparse again.
+     */
+    public final static int SPARSE_THRESHOLD = DENSE_THRESHOLD / 2;
+
+    /**
+     * Define the initial number of littered tile(s) of the sparse array(s).
+     */
+    private final static int SPARSE_CAPACITY = 8;
+
+    private final static long[] EMPTY = new long[0];
+
+    private final ChunkLayout mLayout;
+    private IntIntHashMap mIndices = new IntIntHashMap();
+    private int[] mPositions = new int[SPARSE_CAPACITY];
+    private long[][] mSparse = new long[SPARSE_CAPACITY][];
+    private long[][] mDense;
+    private int mSize;
+
+    /**
+     * Constructor for {@link ChunkItemStorage}.
+     *
+     * @param layout the layout of the tiles within the chunk.
+     */
+    ChunkItemStorage(ChunkLayout layout) {
+        this.mLayout = layout;
+    }
+
+    /**
+     * Retrieves the number of tile(s) that contain(s) at least one item.
+     *
+     * @return the number of littered tile(s).
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Check whenever the storage is dense.
+     *
+     * @return true if the storage is backed by a dense array, false if backed by a sparse map.
+     */
+    public boolean isDense() {
+        return mDense != null;
+    }
+
+    /**
+     * Retrieves the number of stack(s) at the given position.
+     *
+     * @param position the linear position of the tile.
+     *
+     * @return the number of stack(s) at the given position.
+     */
+    public int getCount(int position) {
+        return getStacks(position).length;
+    }
+
+    /**
+     * Retrieves the identifier of the stack at the given index.
+     *
+     * @param position the linear position of the tile.
+     * @param index    the index of the stack.
+     *
+     * @return the unique identifier of the item.
+     */
+    public int getId(int position, int index) {
+        return getId(getStacks(position)[index]);
+    }
+
+    /**
+     * Retrieves the amount of the stack at the given index.
+     *
+     * @param position the linear position of the tile.
+     * @param index    the index of the stack.
+     *
+     * @return the amount of the item.
+     */
+    public int getAmount(int position, int index) {
+        return getAmount(getStacks(position)[index]);
+    }
+
+    /**
+     * Retrieves the identifier of the first stack at the given position.
+     *
+     * @param position the linear position of the tile.
+     *
+     * @return the unique identifier of the item, or zero if the tile is empty.
+     */
+    public int getTop(int position) {
+        final long[] stacks = getStacks(position);
+
+        return stacks.length == 0 ? 0 : getId(stacks[0]);
+    }
+
+    /**
+     * Retrieves the amount of the given item at the given position.
+     *
+     * @param position the linear position of the tile.
+     * @param id       the unique identifier of the item.
+     *
+     * @return the amount of the item at the given position.
+     */
+    public int getAmountOf(int position, int id) {
+        final long[] stacks = getStacks(position);
+        final int index = indexOf(stacks, id);
+
+        return index < 0 ? 0 : getAmount(stacks[index]);
+    }
+
+    /**
+     * Adds an amount of the given item at the given position.
+     *
+     * @param position the linear position of the tile.
+     * @param id       the unique identifier of the item.
+     * @param amount   the amount of the item to add.
+     *
+     * @return the amount of the item at the given position after adding.
+     */
+    int add(int position, int id, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive.");
+        }
+
+        long[] stacks = getStacks(position);
+        final int index = indexOf(stacks, id);
+
+        if (index >= 0) {
+            final long total = (long) getAmount(stacks[index]) + amount;
+
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Amount of the stack overflows.");
+            }
+            stacks[index] = getStack(id, (int) total);
+            return (int) total;
+        }
+
+        stacks = Arrays.copyOf(stacks, stacks.length + 1);
+        stacks[stacks.length - 1] = getStack(id, amount);
+        setStacks(position, stacks);
+        return amount;
+    }
+
+    /**
+     * Removes an amount of the given item at the given position.
+     *
+     * @param position the linear position of the tile.
+     * @param id       the unique identifier of the item.
+     * @param amount   the amount of the item to remove.
+     *
+     * @return the amount of the item that was removed.
+     */
+    int remove(int position, int id, int amount) {
+        final long[] stacks = getStacks(position);
+        final int index = indexOf(stacks, id);
+
+        if (index < 0 || amount <= 0) {
+            return 0;
+        }
+
+        final int current = getAmount(stacks[index]);
+
+        if (current > amount) {
+            stacks[index] = getStack(id, current - amount);
+            return amount;
+        }
+
+        final long[] remaining = new long[stacks.length - 1];
+        System.arraycopy(stacks, 0, remaining, 0, index);
+        System.arraycopy(stacks, index + 1, remaining, index, remaining.length - index);
+        setStacks(position, remaining);
+        return current;
+    }
+
+    /**
+     * Removes every stack at the given position.
+     *
+     * @param position the linear position of the tile.
+     */
+    void clear(int position) {
+        setStacks(position, EMPTY);
+    }
+
+    /**
+     * Executes the given {@linkplain ChunkItemProcedure} for every stack within the given rectangle.
+     *
+     * @param x         the x coordinates of the rectangle (in relative coordinates).
+     * @param y         the y coordinates of the rectangle (in relative coordinates).
+     * @param width     the width of the rectangle.
+     * @param height    the height of the rectangle.
+     * @param procedure the procedure to execute for every stack.
+     */
+    public void forEach(int x, int y, int width, int height, ChunkItemProcedure procedure) {
+        if (mSize == 0) {
+            return;
+        }
+
+        if (mDense == null && mSize < width * height) {
+            for (int i = 0; i < mSize; i++) {
+                final int tileX = mLayout.getX(mPositions[i]);
+                final int tileY = mLayout.getY(mPositions[i]);
+
+                if (tileX >= x && tileY >= y && tileX < x + width && tileY < y + height) {
+                    forEach(tileX, tileY, mSparse[i], procedure);
+                }
+            }
+        } else {
+            for (int tileY = y; tileY < y + height; tileY++) {
+                for (int tileX = x; tileX < x + width; tileX++) {
+                    forEach(tileX, tileY, getStacks(mLayout.getPosition(tileX, tileY)), procedure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the given {@linkplain ChunkItemProcedure} for every stack of a tile.
+     *
+     * @param x         the x coordinates of the tile (in relative coordinates).
+     * @param y         the y coordinates of the tile (in relative coordinates).
+     * @param stacks    the stack(s) of the tile.
+     * @param procedure the procedure to execute for every stack.
+     */
+    private static void forEach(int x, int y, long[] stacks, ChunkItemProcedure procedure) {
+        for (long stack : stacks) {
+            procedure.value(x, y, getId(stack), getAmount(stack));
+        }
+    }
+
+    /**
+     * Retrieves the stack(s) at the given position.
+     *
+     * @param position the linear position of the tile.
+     *
+     * @return an array that contain(s) every stack of the tile.
+     */
+    private long[] getStacks(int position) {
+        if (mDense != null) {
+            final long[] stacks = mDense[position];
+
+            return stacks == null ? EMPTY : stacks;
+        }
+
+        final int index = mIndices.getIfAbsent(position, -1);
+
+        return index < 0 ? EMPTY : mSparse[index];
+    }
+
+    /**
+     * Changes the stack(s) at the given position, switching between sparse and dense storage if required.
+     *
+     * @param position the linear position of the tile.
+     * @param stacks   an array that contain(s) every stack of the tile.
+     */
+    private void setStacks(int position, long[] stacks) {
+        final boolean wasEmpty = getStacks(position).length == 0;
+        final boolean isEmpty = stacks.length == 0;
+
+        if (mDense != null) {
+            mDense[position] = isEmpty ? null : stacks;
+        } else {
+            setSparseStacks(position, isEmpty ? null : stacks);
+        }
+        mSize += (wasEmpty ? 0 : -1) + (isEmpty ? 0 : 1);
+
+        if (mDense == null && mSize > DENSE_THRESHOLD) {
+            mDense = new long[Chunk.CHUNK_LENGTH][];
+
+            for (int i = 0; i < mSize; i++) {
+                mDense[mPositions[i]] = mSparse[i];
+            }
+            mIndices = null;
+            mPositions = null;
+            mSparse = null;
+        } else if (mDense != null && mSize < SPARSE_THRESHOLD) {
+            mIndices = new IntIntHashMap(mSize);
+            mPositions = new int[Math.max(mSize, SPARSE_CAPACITY)];
+            mSparse = new long[mPositions.length][];
+
+            for (int i = 0, j = 0; i < Chunk.CHUNK_LENGTH; i++) {
+                if (mDense[i] != null) {
+                    mIndices.put(i, j);
+                    mPositions[j] = i;
+                    mSparse[j++] = mDense[i];
+                }
+            }
+            mDense = null;
+        }
+    }
+
+    /**
+     * Changes the stack(s) at the given position of the sparse array(s), the last littered tile takes the index of
+     * a tile that becomes empty.
+     *
+     * @param position the linear position of the tile.
+     * @param stacks   an array that contain(s) every stack of the tile, or null if the tile becomes empty.
+     */
+    private void setSparseStacks(int position, long[] stacks) {
+        final int index = mIndices.getIfAbsent(position, -1);
+
+        if (index >= 0 && stacks != null) {
+            mSparse[index] = stacks;
+        } else if (index >= 0) {
+            final int last = mSize - 1;
+
+            mIndices.remove(position);
+
+            if (index != last) {
+                mPositions[index] = mPositions[last];
+                mSparse[index] = mSparse[last];
+                mIndices.put(mPositions[index], index);
+            }
+            mSparse[last] = null;
+        } else if (stacks != null) {
+            if (mSize == mPositions.length) {
+                mPositions = Arrays.copyOf(mPositions, mSize << 1);
+                mSparse = Arrays.copyOf(mSparse, mSize << 1);
+            }
+            mIndices.put(position, mSize);
+            mPositions[mSize] = position;
+            mSparse[mSize] = stacks;
+        }
+    }
+
+    /**
+     * Retrieves the index of the stack of the given item.
+     *
+     * @param stacks the stack(s) of the tile.
+     * @param id     the unique identifier of the item.
+     *
+     * @return the index of the stack, or -1 if the tile has no stack of the item.
+     */
+    private static int indexOf(long[] stacks, int id) {
+        for (int i = 0; i < stacks.length; i++) {
+            if (getId(stacks[i]) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the packed representation of a stack.
+     *
+     * @param id     the unique identifier of the item.
+     * @param amount the amount of the item.
+     *
+     * @return the packed representation of the stack.
+     */
+    private static long getStack(int id, int amount) {
+        return ((long) id << 32) | (amount & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retrieves the identifier of a packed stack.
+     *
+     * @param stack the packed representation of the stack.
+     *
+     * @return the unique identifier of the item.
+     */
+    private static int getId(long stack) {
+        return (int) (stack >>> 32);
+    }
+
+    /**
+     * Retrieves the amount of a packed stack.
+     *
+     * @param stack the packed representation of the stack.
+     *
+     * @return the amount of the item.
+     */
+    private static int getAmount(long stack) {
+        return (int) stack;
+    }
+}
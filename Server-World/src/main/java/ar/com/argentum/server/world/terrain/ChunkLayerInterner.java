@@ -0,0 +1,206 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents an interner that deduplicates the tile and property layers of every {@linkplain Chunk} by content.
+ * <p>
+ * Every layer is hashed when interned, and a layer equal to a previous interned layer is replaced by the array of the
+ * latter. Every interned array is frozen, and copied by the {@linkplain Chunk} on its first write (e.g
+ * {@linkplain Chunk#setTile}), like any shared layer.
+ * <p>
+ * Every unique array is kept by the interner until {@linkplain #clear()}, up to the given capacity. Once full, unique
+ * layer(s) are left private to their chunk, while layer(s) equal to a kept array are still deduplicated.
+ */
+public final class ChunkLayerInterner {
+    /**
+     * Define the layer(s) deduplicated by the interner.
+     */
+    public final static int INTERNED_LAYERS = Chunk.LAYER_TILE | Chunk.LAYER_PROPERTY;
+
+    private final ConcurrentMap<Layer, int[]> mLayers = new ConcurrentHashMap<>();
+    private final AtomicLong mInterned = new AtomicLong();
+    private final AtomicLong mDeduplicated = new AtomicLong();
+    private final ChunkPool mPool;
+    private final int mCapacity;
+
+    /**
+     * Constructor for {@link ChunkLayerInterner}.
+     *
+     * @param capacity the maximum number of unique array(s) kept by the interner.
+     */
+    public ChunkLayerInterner(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Constructor for {@link ChunkLayerInterner}.
+     *
+     * @param capacity the maximum number of unique array(s) kept by the interner.
+     * @param pool     the pool that recycles every replaced array (nullable).
+     */
+    public ChunkLayerInterner(int capacity, ChunkPool pool) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Interner capacity cannot be negative.");
+        }
+        this.mCapacity = capacity;
+        this.mPool = pool;
+    }
+
+    /**
+     * Deduplicates the tile and property layers of the given {@linkplain Chunk}.
+     * <p>
+     * Must be called before the chunk is published to other thread(s) (e.g after being generated), or from the
+     * thread that owns it.
+     *
+     * @param chunk the chunk to intern.
+     */
+    public void intern(Chunk chunk) {
+        intern(chunk, Chunk.LAYER_TILE);
+        intern(chunk, Chunk.LAYER_PROPERTY);
+    }
+
+    /**
+     * Retrieves the number of layer(s) interned.
+     *
+     * @return the number of layer(s) interned, including every deduplicated layer.
+     */
+    public long getInterned() {
+        return mInterned.get();
+    }
+
+    /**
+     * Retrieves the number of layer(s) replaced by an equal array.
+     *
+     * @return the number of layer(s) deduplicated.
+     */
+    public long getDeduplicated() {
+        return mDeduplicated.get();
+    }
+
+    /**
+     * Retrieves the number of unique array(s) kept by the interner.
+     *
+     * @return the number of unique array(s).
+     */
+    public int getUnique() {
+        return mLayers.size();
+    }
+
+    /**
+     * Retrieves the ratio of interned layer(s) that were deduplicated.
+     *
+     * @return a number between 0 and 1 of the deduplicated layer(s).
+     */
+    public double getRatio() {
+        final long interned = mInterned.get();
+
+        return interned == 0L ? 0.0D : (double) mDeduplicated.get() / interned;
+    }
+
+    /**
+     * Retrieves the number of byte(s) of every array that was replaced by an equal array.
+     *
+     * @return the number of byte(s) saved.
+     */
+    public long getSavedBytes() {
+        return mDeduplicated.get() * Chunk.CHUNK_LENGTH * Integer.BYTES;
+    }
+
+    /**
+     * Forget every unique array, every interned layer remains shared until its first write.
+     */
+    public void clear() {
+        mLayers.clear();
+    }
+
+    /**
+     * Deduplicates the given layer of the given {@linkplain Chunk}.
+     *
+     * @param chunk the chunk to intern.
+     * @param layer the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     */
+    private void intern(Chunk chunk, int layer) {
+        if (chunk.isShared(layer)) {
+            return;
+        }
+        mInterned.incrementAndGet();
+
+        final int[] array = chunk.getLayer(layer);
+        final Layer key = new Layer(array);
+        int[] interned = mLayers.get(key);
+
+        if (interned == null) {
+            if (mLayers.size() >= mCapacity) {
+                return;
+            }
+            interned = mLayers.putIfAbsent(key, array);
+
+            if (interned == null) {
+                chunk.shareLayer(layer, array);
+                return;
+            }
+        }
+        chunk.shareLayer(layer, interned);
+        mDeduplicated.incrementAndGet();
+
+        if (mPool != null) {
+            mPool.free(array);
+        }
+    }
+
+    /**
+     * Encapsulate the content of a layer, hashed once.
+     */
+    private final static class Layer {
+        private final int[] mArray;
+        private final int mHash;
+
+        /**
+         * Constructor for {@link Layer}.
+         *
+         * @param array the backing array of the layer.
+         */
+        private Layer(int[] array) {
+            this.mArray = array;
+            this.mHash = Arrays.hashCode(array);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof Layer
+                    && ((Layer) object).mHash == mHash && Arrays.equals(((Layer) object).mArray, mArray);
+        }
+    }
+}
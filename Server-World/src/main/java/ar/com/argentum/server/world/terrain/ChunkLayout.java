@@ -0,0 +1,171 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+/**
+ * Enumerates all layout(s) of the tiles within a {@linkplain Chunk}.
+ */
+public enum ChunkLayout {
+    /**
+     * Row-major layout, tiles of the same row are contiguous.
+     */
+    LINEAR,
+
+    /**
+     * Z-order (Morton) layout, tiles close in both axis are close in memory.
+     */
+    MORTON;
+
+    /**
+     * An array that contain(s) all enumeration values.
+     */
+    public static final ChunkLayout[] VALUES = ChunkLayout.values();
+    public static final int LENGTH = VALUES.length;
+
+    /**
+     * Define the bit(s) of the x coordinate within a {@linkplain #MORTON} position.
+     */
+    private final static int MORTON_X_MASK = 0x5555 & (Chunk.CHUNK_LENGTH - 1);
+
+    /**
+     * Define the bit(s) of the y coordinate within a {@linkplain #MORTON} position.
+     */
+    private final static int MORTON_Y_MASK = 0xAAAA & (Chunk.CHUNK_LENGTH - 1);
+
+    /**
+     * Retrieve the enumeration value given the index.
+     *
+     * @param index the index of the enumeration.
+     *
+     * @return the enumeration representation of the given index.
+     */
+    public static ChunkLayout getEnumeration(int index) {
+        if (index < 0 || index >= LENGTH) {
+            throw new IllegalArgumentException("Enumeration index is out of bounds");
+        }
+        return VALUES[index];
+    }
+
+    /**
+     * Retrieves the linear position of the given relative coordinates.
+     *
+     * @param x the x coordinates (in relative coordinates).
+     * @param y the y coordinates (in relative coordinates).
+     *
+     * @return the position of the tile within the backing arrays of the chunk.
+     */
+    public int getPosition(int x, int y) {
+        return this == MORTON ? interleave(x) | (interleave(y) << 1) : (y << Chunk.CHUNK_SHIFT) | x;
+    }
+
+    /**
+     * Retrieves the x coordinate (in relative coordinates) of the given position.
+     *
+     * @param position the position of the tile within the backing arrays of the chunk.
+     *
+     * @return the x coordinate (in relative coordinates).
+     */
+    public int getX(int position) {
+        return this == MORTON ? deinterleave(position) : position & Chunk.CHUNK_MASK;
+    }
+
+    /**
+     * Retrieves the y coordinate (in relative coordinates) of the given position.
+     *
+     * @param position the position of the tile within the backing arrays of the chunk.
+     *
+     * @return the y coordinate (in relative coordinates).
+     */
+    public int getY(int position) {
+        return this == MORTON ? deinterleave(position >>> 1) : position >>> Chunk.CHUNK_SHIFT;
+    }
+
+    /**
+     * Retrieves the position of the tile next to the given position in the x axis, without computing the position
+     * from the coordinates.
+     *
+     * @param position the position of the tile within the backing arrays of the chunk.
+     *
+     * @return the position of the tile at x + 1 (wrapped within the chunk).
+     */
+    public int getNextX(int position) {
+        return this == MORTON
+                ? (((position | MORTON_Y_MASK) + 1) & MORTON_X_MASK) | (position & MORTON_Y_MASK)
+                : (position & ~Chunk.CHUNK_MASK) | ((position + 1) & Chunk.CHUNK_MASK);
+    }
+
+    /**
+     * Retrieves the position of the tile next to the given position in the y axis, without computing the position
+     * from the coordinates.
+     *
+     * @param position the position of the tile within the backing arrays of the chunk.
+     *
+     * @return the position of the tile at y + 1 (wrapped within the chunk).
+     */
+    public int getNextY(int position) {
+        return this == MORTON
+                ? (((position | MORTON_X_MASK) + 1) & MORTON_Y_MASK) | (position & MORTON_X_MASK)
+                : (position + Chunk.CHUNK_BIT) & (Chunk.CHUNK_LENGTH - 1);
+    }
+
+    /**
+     * Copies the given layer into another layout.
+     *
+     * @param source      the layer in this layout.
+     * @param layout      the layout of the destination.
+     * @param destination the layer where to copy the source.
+     */
+    public void convert(int[] source, ChunkLayout layout, int[] destination) {
+        if (this == layout) {
+            System.arraycopy(source, 0, destination, 0, Chunk.CHUNK_LENGTH);
+        } else {
+            for (int position = 0; position < Chunk.CHUNK_LENGTH; position++) {
+                destination[layout.getPosition(getX(position), getY(position))] = source[position];
+            }
+        }
+    }
+
+    /**
+     * Spread the bit(s) of the given coordinate into the even bit(s).
+     *
+     * @param value the coordinate (in relative coordinates).
+     *
+     * @return the coordinate with a zero bit between each of its bit(s).
+     */
+    private static int interleave(int value) {
+        value = (value | (value << 4)) & 0x0F0F;
+        value = (value | (value << 2)) & 0x3333;
+        value = (value | (value << 1)) & 0x5555;
+        return value;
+    }
+
+    /**
+     * Compact the even bit(s) of the given position into a coordinate.
+     *
+     * @param value the position of the tile.
+     *
+     * @return the coordinate (in relative coordinates).
+     */
+    private static int deinterleave(int value) {
+        value &= 0x5555;
+        value = (value | (value >>> 1)) & 0x3333;
+        value = (value | (value >>> 2)) & 0x0F0F;
+        value = (value | (value >>> 4)) & 0x00FF;
+        return value;
+    }
+}
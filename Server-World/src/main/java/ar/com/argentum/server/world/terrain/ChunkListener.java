@@ -0,0 +1,40 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+/**
+ * Represents a listener which receives the changes of a {@linkplain Chunk} in batches.
+ */
+public interface ChunkListener {
+    /**
+     * Retrieves the layer(s) the listener is interested in.
+     *
+     * @return a mask of {@linkplain Chunk#LAYER_TILE}, {@linkplain Chunk#LAYER_ENTITY}, {@linkplain Chunk#LAYER_ITEM}
+     * and {@linkplain Chunk#LAYER_PROPERTY}.
+     */
+    int getLayers();
+
+    /**
+     * Called once per dispatch for every {@linkplain Chunk} that has changed in any of the listened layer(s).
+     * <p>
+     * The batch is only valid during the call and must not be retained.
+     *
+     * @param batch the batch that contain(s) every change of the chunk.
+     */
+    void onChunkChange(ChunkChangeBatch batch);
+}
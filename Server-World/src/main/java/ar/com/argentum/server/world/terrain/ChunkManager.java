@@ -17,10 +17,17 @@
  */
 package ar.com.argentum.server.world.terrain;
 
+import com.gs.collections.api.LazyIterable;
 import com.gs.collections.api.block.predicate.Predicate;
+import com.gs.collections.api.block.procedure.Procedure;
 import com.gs.collections.api.collection.ImmutableCollection;
+import com.gs.collections.impl.utility.LazyIterate;
 
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a manager which handles {@linkplain Chunk}(s).
@@ -67,6 +74,20 @@ public interface ChunkManager {
      */
     Optional<Chunk> getChunk(int x, int y, boolean loadIfUnloaded);
 
+    /**
+     * Retrieves the {@linkplain Chunk} at the given coordinates without wrapping it.
+     * <p>
+     * Implementation(s) should override this method when the lookup can be made without allocation.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return the {@linkplain Chunk} at the given position, or null if the chunk is not loaded.
+     */
+    default Chunk findChunk(int x, int y) {
+        return getChunk(x, y).orElse(null);
+    }
+
     /**
      * Retrieves the {@linkplain Chunk} at the given world coordinates.
      *
@@ -104,6 +125,57 @@ public interface ChunkManager {
      */
     ImmutableCollection<Chunk> getAvailableChunks(Predicate<Chunk> predicate);
 
+    /**
+     * Retrieves a {@linkplain Spliterator} over all available {@linkplain Chunk}(s), without copying them.
+     * <p>
+     * The spliterator is weakly consistent: chunk(s) loaded or unloaded while traversing may or may not be
+     * reported, but no chunk is reported twice.
+     *
+     * @return a spliterator over all available chunk(s).
+     */
+    Spliterator<Chunk> getChunkSpliterator();
+
+    /**
+     * Executes the given {@linkplain Procedure} for every available {@linkplain Chunk}, without copying them.
+     *
+     * @param procedure the procedure to execute for every chunk.
+     */
+    default void forEachChunk(Procedure<? super Chunk> procedure) {
+        getChunkSpliterator().forEachRemaining(procedure::value);
+    }
+
+    /**
+     * Retrieves a {@linkplain Stream} over all available {@linkplain Chunk}(s), without copying them.
+     *
+     * @param isParallel true if the stream should be executed in parallel, false otherwise.
+     *
+     * @return a stream over all available chunk(s).
+     */
+    default Stream<Chunk> getChunkStream(boolean isParallel) {
+        return StreamSupport.stream(getChunkSpliterator(), isParallel);
+    }
+
+    /**
+     * Retrieves a lazy view of all available {@linkplain Chunk}(s), evaluated on every iteration.
+     *
+     * @return a lazy iterable over all available chunk(s).
+     */
+    default LazyIterable<Chunk> getLazyChunks() {
+        return LazyIterate.adapt(() -> Spliterators.iterator(getChunkSpliterator()));
+    }
+
+    /**
+     * Retrieves a lazy view of all available {@linkplain Chunk}(s) that matches the given {@linkplain Predicate},
+     * the predicate is evaluated on every iteration.
+     *
+     * @param predicate the predicate for filtering chunk(s).
+     *
+     * @return a lazy iterable over all available chunk(s) that matches the predicate.
+     */
+    default LazyIterable<Chunk> getLazyChunks(Predicate<Chunk> predicate) {
+        return getLazyChunks().select(predicate);
+    }
+
     /**
      * Loads a {@linkplain Chunk} at the given coordinates.
      *
@@ -0,0 +1,225 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Represents a pool which recycles the backing arrays of unloaded {@linkplain Chunk}(s).
+ * <p>
+ * A {@linkplain Chunk} given back to the pool must not be used anymore, since its arrays will be reused.
+ */
+public final class ChunkPool {
+    /**
+     * Define the number of plain backing arrays of a {@linkplain Chunk} (tiles, items and properties).
+     */
+    public final static int CHUNK_ARRAYS = 3;
+
+    private final int[][] mArrays;
+    private final AtomicIntegerArray[] mEntities;
+    private int mSize;
+    private int mEntitiesSize;
+    private long mHits;
+    private long mMisses;
+
+    /**
+     * Constructor for {@link ChunkPool}.
+     *
+     * @param capacity the maximum number of {@linkplain Chunk}(s) the pool can hold.
+     */
+    public ChunkPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Pool capacity cannot be negative.");
+        }
+        this.mArrays = new int[capacity * CHUNK_ARRAYS][];
+        this.mEntities = new AtomicIntegerArray[capacity];
+    }
+
+    /**
+     * Retrieves a {@linkplain Chunk} with all layer(s) cleared, reusing pooled arrays when available.
+     *
+     * @param x the x coordinate of the chunk within the world.
+     * @param y the y coordinate of the chunk within the world.
+     *
+     * @return a new chunk at the given coordinates.
+     */
+    public Chunk obtain(int x, int y) {
+        return obtain(x, y, ChunkLayout.LINEAR);
+    }
+
+    /**
+     * Retrieves a {@linkplain Chunk} with all layer(s) cleared, reusing pooled arrays when available.
+     *
+     * @param x      the x coordinate of the chunk within the world.
+     * @param y      the y coordinate of the chunk within the world.
+     * @param layout the layout of the tiles within the chunk.
+     *
+     * @return a new chunk at the given coordinates.
+     */
+    public Chunk obtain(int x, int y, ChunkLayout layout) {
+        return new Chunk(x, y, layout, obtainArray(), obtainEntities(), obtainArray(), obtainArray());
+    }
+
+    /**
+     * Retrieves a {@linkplain Chunk} that shares the layer(s) of the given chunk, reusing a pooled entity array when
+     * available.
+     *
+     * @param base the chunk whose layers are shared.
+     *
+     * @return a new chunk at the coordinates of the given chunk.
+     *
+     * @see Chunk#createOverlay(Chunk)
+     */
+    public Chunk obtainOverlay(Chunk base) {
+        return Chunk.createOverlay(base, obtainEntities());
+    }
+
+    /**
+     * Gives back the backing arrays of the given {@linkplain Chunk} to the pool.
+     * <p>
+     * The backing array of a shared layer is never given back.
+     *
+     * @param chunk the chunk to recycle.
+     */
+    public void free(Chunk chunk) {
+        final ChunkChangeBus bus = chunk.getChangeBus();
+
+        if (bus != null) {
+            bus.detach(chunk);
+        }
+        chunk.setReleased();
+
+        synchronized (this) {
+            if (!chunk.isShared(Chunk.LAYER_TILE)) {
+                freeArray(chunk.getTiles());
+            }
+            if (!chunk.isShared(Chunk.LAYER_ITEM)) {
+                freeArray(chunk.getItems());
+            }
+            if (!chunk.isShared(Chunk.LAYER_PROPERTY)) {
+                freeArray(chunk.getProperties());
+            }
+
+            if (mEntitiesSize < mEntities.length) {
+                mEntities[mEntitiesSize++] = chunk.getEntityArray();
+            }
+        }
+    }
+
+    /**
+     * Gives back a single backing array to the pool, if the pool is full the array is discarded.
+     *
+     * @param array the array to give back, which must not be used anymore.
+     */
+    synchronized void free(int[] array) {
+        freeArray(array);
+    }
+
+    /**
+     * Retrieves the maximum number of {@linkplain Chunk}(s) the pool can hold.
+     *
+     * @return the capacity of the pool (in chunks).
+     */
+    public int getCapacity() {
+        return mArrays.length / CHUNK_ARRAYS;
+    }
+
+    /**
+     * Retrieves the number of array(s) available in the pool.
+     *
+     * @return the number of pooled array(s).
+     */
+    public synchronized int getSize() {
+        return mSize + mEntitiesSize;
+    }
+
+    /**
+     * Retrieves the number of array(s) that were reused from the pool.
+     *
+     * @return the number of hit(s).
+     */
+    public synchronized long getHits() {
+        return mHits;
+    }
+
+    /**
+     * Retrieves the number of array(s) that had to be allocated.
+     *
+     * @return the number of miss(es).
+     */
+    public synchronized long getMisses() {
+        return mMisses;
+    }
+
+    /**
+     * Retrieves a cleared array from the pool, or allocates one if the pool is empty.
+     *
+     * @return an array of {@linkplain Chunk#CHUNK_LENGTH} length with all elements cleared.
+     */
+    private int[] obtainArray() {
+        final int[] array;
+
+        synchronized (this) {
+            if (mSize == 0) {
+                mMisses++;
+                return new int[Chunk.CHUNK_LENGTH];
+            }
+            mHits++;
+            array = mArrays[--mSize];
+            mArrays[mSize] = null;
+        }
+        Arrays.fill(array, 0);
+        return array;
+    }
+
+    /**
+     * Retrieves a cleared entity array from the pool, or allocates one if the pool is empty.
+     *
+     * @return an array of {@linkplain Chunk#CHUNK_LENGTH} length with every tile free.
+     */
+    private AtomicIntegerArray obtainEntities() {
+        final AtomicIntegerArray array;
+
+        synchronized (this) {
+            if (mEntitiesSize == 0) {
+                mMisses++;
+                return Chunk.createEntities();
+            }
+            mHits++;
+            array = mEntities[--mEntitiesSize];
+            mEntities[mEntitiesSize] = null;
+        }
+
+        for (int i = 0; i < Chunk.CHUNK_LENGTH; i++) {
+            array.lazySet(i, Chunk.NO_ENTITY);
+        }
+        return array;
+    }
+
+    /**
+     * Gives back an array to the pool, if the pool is full the array is discarded.
+     *
+     * @param array the array to give back.
+     */
+    private void freeArray(int[] array) {
+        if (mSize < mArrays.length && array.length == Chunk.CHUNK_LENGTH) {
+            mArrays[mSize++] = array;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+/**
+ * Represents a per-tick work over a {@linkplain Chunk} (e.g AI, item decay or regeneration), which only runs at full
+ * rate while the chunk is active.
+ */
+public interface ChunkTicker {
+    /**
+     * Called once per tick for every active {@linkplain Chunk}.
+     *
+     * @param chunk the chunk to update.
+     */
+    void tick(Chunk chunk);
+
+    /**
+     * Called once when a sleeping {@linkplain Chunk} becomes active, before {@linkplain #tick(Chunk)}.
+     * <p>
+     * The chunk should be updated with a single step covering every tick it has slept, instead of running them all.
+     *
+     * @param chunk the chunk to update.
+     * @param ticks the number of tick(s) the chunk has slept.
+     */
+    void catchUp(Chunk chunk, int ticks);
+}
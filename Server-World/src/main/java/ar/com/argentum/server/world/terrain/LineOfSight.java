@@ -0,0 +1,325 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import com.gs.collections.impl.list.mutable.FastList;
+import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Represents a line-of-sight service over the blocking property bit(s) of the tiles of a {@linkplain ChunkManager}.
+ * <p>
+ * Every line is walked with Bresenham from the lowest to the highest endpoint, so that the visibility between two
+ * tiles is the same in both direction(s). Only the tile(s) between both endpoints are tested, and a tile within an
+ * unloaded chunk blocks the line. The property array of the current chunk is kept while walking, so that a line only
+ * goes through the {@linkplain WorldView} when it crosses a chunk border.
+ * <p>
+ * Results of {@linkplain #isVisible(int, int, int, int)} are cached per source tile until {@linkplain #nextTick()},
+ * assuming the blocking property(s) do not change within a tick. A service is not thread-safe and should be owned
+ * by a single thread.
+ */
+public final class LineOfSight {
+    /**
+     * Define the default radius (in tiles) of the visibility cached around every source tile.
+     */
+    public final static int DEFAULT_CACHE_RADIUS = 16;
+
+    private final WorldView mView;
+    private final int mMask;
+    private final int mRadius;
+    private final int mLength;
+    private final LongObjectHashMap<Visibility> mCache = new LongObjectHashMap<>();
+    private final FastList<Visibility> mFreeVisibilities = FastList.newList();
+    private long mHits;
+    private long mMisses;
+    private int[] mProperties;
+    private ChunkLayout mLayout;
+    private int mChunkX;
+    private int mChunkY;
+
+    /**
+     * Constructor for {@link LineOfSight}.
+     *
+     * @param manager the manager of every chunk of the world.
+     */
+    public LineOfSight(ChunkManager manager) {
+        this(manager, Chunk.TILE_PROPERTY_BLOCKED, DEFAULT_CACHE_RADIUS);
+    }
+
+    /**
+     * Constructor for {@link LineOfSight}.
+     *
+     * @param manager the manager of every chunk of the world.
+     * @param mask    the property bit(s) that block a line.
+     * @param radius  the radius (in tiles) of the visibility cached around every source tile.
+     */
+    public LineOfSight(ChunkManager manager, int mask, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius must not be negative.");
+        }
+        this.mView = new WorldView(manager);
+        this.mMask = mask;
+        this.mRadius = radius;
+        this.mLength = (radius << 1) + 1;
+    }
+
+    /**
+     * Retrieves the number of cached visibility lookup(s) since the creation of the service.
+     *
+     * @return the number of lookup(s) that did not walk a line.
+     */
+    public long getHits() {
+        return mHits;
+    }
+
+    /**
+     * Retrieves the number of visibility lookup(s) that walked a line since the creation of the service.
+     *
+     * @return the number of lookup(s) that walked a line.
+     */
+    public long getMisses() {
+        return mMisses;
+    }
+
+    /**
+     * Discard every cached visibility, must be called once per tick or after the blocking property(s) have changed.
+     */
+    public void nextTick() {
+        mCache.forEachValue(mFreeVisibilities::add);
+        mCache.clear();
+    }
+
+    /**
+     * Check whenever the target tile is visible from the source tile, using the cache of the source tile.
+     *
+     * @param sourceX the x coordinates of the source tile (in world coordinates).
+     * @param sourceY the y coordinates of the source tile (in world coordinates).
+     * @param targetX the x coordinates of the target tile (in world coordinates).
+     * @param targetY the y coordinates of the target tile (in world coordinates).
+     *
+     * @return true if no tile between both tile(s) is blocking, false otherwise.
+     */
+    public boolean isVisible(int sourceX, int sourceY, int targetX, int targetY) {
+        return isVisible(getVisibility(sourceX, sourceY), sourceX, sourceY, targetX, targetY);
+    }
+
+    /**
+     * Check whenever every target tile is visible from the source tile, using the cache of the source tile.
+     *
+     * @param sourceX    the x coordinates of the source tile (in world coordinates).
+     * @param sourceY    the y coordinates of the source tile (in world coordinates).
+     * @param targetsX   the x coordinates of every target tile (in world coordinates).
+     * @param targetsY   the y coordinates of every target tile (in world coordinates).
+     * @param count      the number of target(s).
+     * @param visibility the array where to store the visibility of every target.
+     *
+     * @return the number of visible target(s).
+     */
+    public int isVisible(int sourceX, int sourceY, int[] targetsX, int[] targetsY, int count, boolean[] visibility) {
+        if (count > targetsX.length || count > targetsY.length || count > visibility.length) {
+            throw new IllegalArgumentException("Given count does not fit the arrays.");
+        }
+
+        final Visibility cache = getVisibility(sourceX, sourceY);
+        int visible = 0;
+
+        for (int i = 0; i < count; i++) {
+            visibility[i] = isVisible(cache, sourceX, sourceY, targetsX[i], targetsY[i]);
+
+            if (visibility[i]) {
+                visible++;
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Check whenever the target tile is visible from the source tile, without using the cache.
+     *
+     * @param sourceX the x coordinates of the source tile (in world coordinates).
+     * @param sourceY the y coordinates of the source tile (in world coordinates).
+     * @param targetX the x coordinates of the target tile (in world coordinates).
+     * @param targetY the y coordinates of the target tile (in world coordinates).
+     *
+     * @return true if no tile between both tile(s) is blocking, false otherwise.
+     */
+    public boolean trace(int sourceX, int sourceY, int targetX, int targetY) {
+        if (sourceX > targetX || (sourceX == targetX && sourceY > targetY)) {
+            return walk(targetX, targetY, sourceX, sourceY);
+        }
+        return walk(sourceX, sourceY, targetX, targetY);
+    }
+
+    /**
+     * Check whenever the target tile is visible from the source tile, using the given cache.
+     *
+     * @param cache   the cache of the source tile.
+     * @param sourceX the x coordinates of the source tile (in world coordinates).
+     * @param sourceY the y coordinates of the source tile (in world coordinates).
+     * @param targetX the x coordinates of the target tile (in world coordinates).
+     * @param targetY the y coordinates of the target tile (in world coordinates).
+     *
+     * @return true if no tile between both tile(s) is blocking, false otherwise.
+     */
+    private boolean isVisible(Visibility cache, int sourceX, int sourceY, int targetX, int targetY) {
+        final int relativeX = targetX - sourceX + mRadius;
+        final int relativeY = targetY - sourceY + mRadius;
+
+        if (relativeX < 0 || relativeY < 0 || relativeX >= mLength || relativeY >= mLength) {
+            mMisses++;
+            return trace(sourceX, sourceY, targetX, targetY);
+        }
+
+        final int index = relativeY * mLength + relativeX;
+        final long mark = 1L << index;
+
+        if ((cache.mKnown[index >>> 6] & mark) != 0) {
+            mHits++;
+            return (cache.mVisible[index >>> 6] & mark) != 0;
+        }
+        mMisses++;
+
+        final boolean isVisible = trace(sourceX, sourceY, targetX, targetY);
+
+        cache.mKnown[index >>> 6] |= mark;
+
+        if (isVisible) {
+            cache.mVisible[index >>> 6] |= mark;
+        }
+        return isVisible;
+    }
+
+    /**
+     * Retrieves the cache of the given source tile, creating it if required.
+     *
+     * @param x the x coordinates of the source tile (in world coordinates).
+     * @param y the y coordinates of the source tile (in world coordinates).
+     *
+     * @return the cache of the source tile.
+     */
+    private Visibility getVisibility(int x, int y) {
+        final long key = ((long) x << 32) | (y & 0xFFFFFFFFL);
+        Visibility visibility = mCache.get(key);
+
+        if (visibility == null) {
+            if (mFreeVisibilities.isEmpty()) {
+                visibility = new Visibility(mLength * mLength);
+            } else {
+                visibility = mFreeVisibilities.remove(mFreeVisibilities.size() - 1);
+                visibility.reset();
+            }
+            mCache.put(key, visibility);
+        }
+        return visibility;
+    }
+
+    /**
+     * Walk the line between both tile(s), from the first to the second tile.
+     *
+     * @param x0 the x coordinates of the first tile (in world coordinates).
+     * @param y0 the y coordinates of the first tile (in world coordinates).
+     * @param x1 the x coordinates of the second tile (in world coordinates).
+     * @param y1 the y coordinates of the second tile (in world coordinates).
+     *
+     * @return true if no tile between both tile(s) is blocking, false otherwise.
+     */
+    private boolean walk(int x0, int y0, int x1, int y1) {
+        final int deltaX = Math.abs(x1 - x0);
+        final int deltaY = -Math.abs(y1 - y0);
+        final int stepX = x0 < x1 ? 1 : -1;
+        final int stepY = y0 < y1 ? 1 : -1;
+        int error = deltaX + deltaY;
+        int x = x0;
+        int y = y0;
+
+        mProperties = null;
+
+        while (x != x1 || y != y1) {
+            final int doubleError = error << 1;
+
+            if (doubleError >= deltaY) {
+                error += deltaY;
+                x += stepX;
+            }
+            if (doubleError <= deltaX) {
+                error += deltaX;
+                y += stepY;
+            }
+            if (x == x1 && y == y1) {
+                return true;
+            }
+            if (isBlocking(x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whenever the given tile blocks a line.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return true if the tile is blocking or its chunk is not loaded, false otherwise.
+     */
+    private boolean isBlocking(int x, int y) {
+        final int chunkX = x >> Chunk.CHUNK_SHIFT;
+        final int chunkY = y >> Chunk.CHUNK_SHIFT;
+
+        if (mProperties == null || chunkX != mChunkX || chunkY != mChunkY) {
+            final Chunk chunk = mView.getChunk(chunkX, chunkY);
+
+            if (chunk == null) {
+                return true;
+            }
+            mProperties = chunk.getProperties();
+            mLayout = chunk.getLayout();
+            mChunkX = chunkX;
+            mChunkY = chunkY;
+        }
+        return (mProperties[mLayout.getPosition(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK)] & mMask) != 0;
+    }
+
+    /**
+     * Encapsulate the cached visibility around a source tile, with two bit(s) per tile.
+     */
+    private final static class Visibility {
+        private final long[] mKnown;
+        private final long[] mVisible;
+
+        /**
+         * Constructor for {@link Visibility}.
+         *
+         * @param length the number of tile(s) around the source tile.
+         */
+        private Visibility(int length) {
+            this.mKnown = new long[(length + 63) >>> 6];
+            this.mVisible = new long[mKnown.length];
+        }
+
+        /**
+         * Discard every cached visibility.
+         */
+        private void reset() {
+            Arrays.fill(mKnown, 0L);
+            Arrays.fill(mVisible, 0L);
+        }
+    }
+}
@@ -0,0 +1,648 @@
+/**
+ * This file is part of Argentum Online <https://github.com/Argentum-Online/Game-Server>.
+ *
+ * Copyright (c) 2015-2016 - Argentum Online Team <https://github.com/Argentum-Online>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ar.com.argentum.server.world.terrain;
+
+import com.gs.collections.impl.list.mutable.primitive.IntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Represents a cursor over the tiles of a {@linkplain ChunkManager} in world coordinates.
+ * <p>
+ * The view resolves world coordinates with shifts and masks, and caches the last {@linkplain Chunk} hit, so that
+ * consecutive accesses within the same chunk do not go through the manager. Reads of an unloaded chunk return
+ * {@linkplain #NO_VALUE}. A view is not thread-safe and should be owned by a single thread.
+ */
+public final class WorldView {
+    /**
+     * Represent the value of a tile within an unloaded {@linkplain Chunk}.
+     */
+    public final static int NO_VALUE = Integer.MIN_VALUE;
+
+    private final static int OPERATION_FILL = 0;
+    private final static int OPERATION_SET_MASK = 1;
+    private final static int OPERATION_CLEAR_MASK = 2;
+
+    private final ChunkManager mManager;
+    private int[] mBuffer = new int[0];
+    private int[] mOtherBuffer = new int[0];
+    private final IntArrayList mStacks = new IntArrayList();
+    private final IntArrayList mOtherStacks = new IntArrayList();
+    private final IntArrayList mTileStacks = new IntArrayList();
+    private IntArrayList mStackDestination;
+    private final ChunkItemProcedure mStackProcedure = (x, y, id, amount) -> {
+        mStackDestination.add(id);
+        mStackDestination.add(amount);
+    };
+    private Chunk mChunk;
+    private int mChunkX;
+    private int mChunkY;
+
+    /**
+     * Constructor for {@link WorldView}.
+     *
+     * @param manager the manager of every chunk of the world.
+     */
+    public WorldView(ChunkManager manager) {
+        this.mManager = manager;
+    }
+
+    /**
+     * Retrieves the {@linkplain Chunk} at the given world coordinates.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return the chunk at the given position, or null if the chunk is not loaded.
+     */
+    public Chunk getChunkAt(int x, int y) {
+        return getChunk(x >> Chunk.CHUNK_SHIFT, y >> Chunk.CHUNK_SHIFT);
+    }
+
+    /**
+     * Retrieves the {@linkplain Chunk} at the given chunk coordinates.
+     *
+     * @param x the x coordinates (in chunk coordinates).
+     * @param y the y coordinates (in chunk coordinates).
+     *
+     * @return the chunk at the given position, or null if the chunk is not loaded.
+     */
+    public Chunk getChunk(int x, int y) {
+        final Chunk chunk = mChunk;
+
+        if (chunk != null && mChunkX == x && mChunkY == y && !chunk.isReleased()) {
+            return chunk;
+        }
+        mChunk = mManager.findChunk(x, y);
+        mChunkX = x;
+        mChunkY = y;
+        return mChunk;
+    }
+
+    /**
+     * Discard the cached {@linkplain Chunk}.
+     */
+    public void invalidate() {
+        mChunk = null;
+    }
+
+    /**
+     * Check whenever the given world coordinates are blocked.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return true if the tile is blocked or its chunk is not loaded, false otherwise.
+     */
+    public boolean isBlocked(int x, int y) {
+        final Chunk chunk = getChunkAt(x, y);
+
+        return chunk == null || chunk.isBlocked(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK);
+    }
+
+    /**
+     * Retrieves the value of the given layer at the given world coordinates.
+     *
+     * @param layer the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x     the x coordinates (in world coordinates).
+     * @param y     the y coordinates (in world coordinates).
+     *
+     * @return the value at the given coordinates, or {@linkplain #NO_VALUE} if the chunk is not loaded. A free tile of
+     * the entity layer is {@linkplain Chunk#NO_ENTITY}.
+     */
+    public int get(int layer, int x, int y) {
+        final Chunk chunk = getChunkAt(x, y);
+
+        if (chunk == null) {
+            return NO_VALUE;
+        }
+        if (layer == Chunk.LAYER_ENTITY) {
+            return chunk.getEntity(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK);
+        }
+        return chunk.getLayer(layer)[chunk.getTilePosition(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK)];
+    }
+
+    /**
+     * Changes the value of the given layer at the given world coordinates.
+     *
+     * @param layer the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x     the x coordinates (in world coordinates).
+     * @param y     the y coordinates (in world coordinates).
+     * @param value the new value of the tile, {@linkplain Chunk#NO_ENTITY} frees a tile of the entity layer.
+     *
+     * @return true if the value was changed, false if the chunk is not loaded.
+     */
+    public boolean set(int layer, int x, int y, int value) {
+        final Chunk chunk = getChunkAt(x, y);
+
+        if (chunk == null) {
+            return false;
+        }
+
+        final int relativeX = x & Chunk.CHUNK_MASK;
+        final int relativeY = y & Chunk.CHUNK_MASK;
+
+        switch (layer) {
+            case Chunk.LAYER_TILE:
+                chunk.setTile(relativeX, relativeY, value);
+                break;
+            case Chunk.LAYER_ENTITY:
+                chunk.setEntity(relativeX, relativeY, value);
+                break;
+            case Chunk.LAYER_ITEM:
+                chunk.setItem(relativeX, relativeY, value);
+                break;
+            case Chunk.LAYER_PROPERTY:
+                chunk.setProperty(relativeX, relativeY, value);
+                break;
+            default:
+                throw new IllegalArgumentException("Layer is unsupported");
+        }
+        return true;
+    }
+
+    /**
+     * Atomically claim the tile at the given world coordinates for the given entity.
+     *
+     * @param x      the x coordinates (in world coordinates).
+     * @param y      the y coordinates (in world coordinates).
+     * @param entity the unique identifier of the entity.
+     *
+     * @return true if the tile was free and is now occupied by the entity, false otherwise.
+     */
+    public boolean tryClaim(int x, int y, int entity) {
+        final Chunk chunk = getChunkAt(x, y);
+
+        return chunk != null && chunk.tryClaim(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK, entity);
+    }
+
+    /**
+     * Atomically release the tile at the given world coordinates if occupied by the given entity.
+     *
+     * @param x      the x coordinates (in world coordinates).
+     * @param y      the y coordinates (in world coordinates).
+     * @param entity the unique identifier of the entity.
+     *
+     * @return true if the tile was occupied by the entity and is now free, false otherwise.
+     */
+    public boolean release(int x, int y, int entity) {
+        final Chunk chunk = getChunkAt(x, y);
+
+        return chunk != null && chunk.release(x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK, entity);
+    }
+
+    /**
+     * Atomically moves an entity between two tiles in world coordinates, across chunk borders if required.
+     *
+     * @param sourceX the x coordinates of the source tile (in world coordinates).
+     * @param sourceY the y coordinates of the source tile (in world coordinates).
+     * @param x       the x coordinates of the destination tile (in world coordinates).
+     * @param y       the y coordinates of the destination tile (in world coordinates).
+     * @param entity  the unique identifier of the entity.
+     *
+     * @return true if the entity was moved, false otherwise.
+     *
+     * @see Chunk#tryMove(Chunk, int, int, Chunk, int, int, int)
+     */
+    public boolean tryMove(int sourceX, int sourceY, int x, int y, int entity) {
+        final Chunk source = getChunkAt(sourceX, sourceY);
+        final Chunk destination = getChunkAt(x, y);
+
+        return source != null && destination != null && Chunk.tryMove(
+                source, sourceX & Chunk.CHUNK_MASK, sourceY & Chunk.CHUNK_MASK,
+                destination, x & Chunk.CHUNK_MASK, y & Chunk.CHUNK_MASK, entity);
+    }
+
+    /**
+     * Retrieves the tile at the given world coordinates.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return the identifier of the tile, or {@linkplain #NO_VALUE} if the chunk is not loaded.
+     */
+    public int getTile(int x, int y) {
+        return get(Chunk.LAYER_TILE, x, y);
+    }
+
+    /**
+     * Retrieves the item at the given world coordinates.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return the identifier of the item, or {@linkplain #NO_VALUE} if the chunk is not loaded.
+     */
+    public int getItem(int x, int y) {
+        return get(Chunk.LAYER_ITEM, x, y);
+    }
+
+    /**
+     * Retrieves the property at the given world coordinates.
+     *
+     * @param x the x coordinates (in world coordinates).
+     * @param y the y coordinates (in world coordinates).
+     *
+     * @return the identifier of the property, or {@linkplain #NO_VALUE} if the chunk is not loaded.
+     */
+    public int getProperty(int x, int y) {
+        return get(Chunk.LAYER_PROPERTY, x, y);
+    }
+
+    /**
+     * Copies a rectangle of the given layer into the given array (in row-major order).
+     * <p>
+     * Tiles within unloaded chunk(s) are filled with {@linkplain #NO_VALUE}, and free tiles of the entity layer with
+     * {@linkplain Chunk#NO_ENTITY}.
+     *
+     * @param layer       the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x           the x coordinates of the rectangle (in world coordinates).
+     * @param y           the y coordinates of the rectangle (in world coordinates).
+     * @param width       the width of the rectangle.
+     * @param height      the height of the rectangle.
+     * @param destination the array where to copy the rectangle.
+     */
+    public void read(int layer, int x, int y, int width, int height, int[] destination) {
+        transfer(layer, x, y, width, height, destination, true);
+    }
+
+    /**
+     * Copies the given array (in row-major order) into a rectangle of the given layer.
+     * <p>
+     * Tiles within unloaded chunk(s) are skipped.
+     *
+     * @param layer  the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param source the array where to copy the rectangle from.
+     */
+    public void write(int layer, int x, int y, int width, int height, int[] source) {
+        transfer(layer, x, y, width, height, source, false);
+    }
+
+    /**
+     * Changes every tile within a rectangle of the given layer to the given value.
+     * <p>
+     * Tiles within unloaded chunk(s) are skipped, and every chunk records the change once.
+     *
+     * @param layer  the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param value  the new value of every tile.
+     *
+     * @see Chunk#fill(int, int, int, int, int, int)
+     */
+    public void fill(int layer, int x, int y, int width, int height, int value) {
+        edit(OPERATION_FILL, layer, x, y, width, height, value);
+    }
+
+    /**
+     * Set the given bit(s) of the property of every tile within a rectangle.
+     * <p>
+     * Tiles within unloaded chunk(s) are skipped.
+     *
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param mask   the bit(s) to set (e.g {@linkplain Chunk#TILE_PROPERTY_BLOCKED}).
+     */
+    public void setPropertyMask(int x, int y, int width, int height, int mask) {
+        edit(OPERATION_SET_MASK, Chunk.LAYER_PROPERTY, x, y, width, height, mask);
+    }
+
+    /**
+     * Clear the given bit(s) of the property of every tile within a rectangle.
+     * <p>
+     * Tiles within unloaded chunk(s) are skipped.
+     *
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param mask   the bit(s) to clear (e.g {@linkplain Chunk#TILE_PROPERTY_BLOCKED}).
+     */
+    public void clearPropertyMask(int x, int y, int width, int height, int mask) {
+        edit(OPERATION_CLEAR_MASK, Chunk.LAYER_PROPERTY, x, y, width, height, mask);
+    }
+
+    /**
+     * Copies a rectangle of the given layer into the given view, which may belong to another world.
+     * <p>
+     * Tiles within unloaded chunk(s) of either view are left untouched. The rectangles may overlap, since the
+     * source rectangle is read completely before being written. Every item stack is copied as a whole.
+     *
+     * @param layer        the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x            the x coordinates of the rectangle (in world coordinates).
+     * @param y            the y coordinates of the rectangle (in world coordinates).
+     * @param width        the width of the rectangle.
+     * @param height       the height of the rectangle.
+     * @param destination  the view where to paste the rectangle.
+     * @param destinationX the x coordinates of the pasted rectangle (in world coordinates of the destination).
+     * @param destinationY the y coordinates of the pasted rectangle (in world coordinates of the destination).
+     */
+    public void copy(int layer, int x, int y, int width, int height,
+                     WorldView destination, int destinationX, int destinationY) {
+        final int length = prepareBuffers(width, height);
+
+        if (layer == Chunk.LAYER_ITEM) {
+            readStacks(x, y, width, height, mStacks);
+            destination.writeStacks(destinationX, destinationY, width, height, mStacks);
+            return;
+        }
+
+        final boolean isComplete = transfer(layer, x, y, width, height, mBuffer, true);
+        final boolean isDestinationComplete =
+                destination.transfer(layer, destinationX, destinationY, width, height, mOtherBuffer, true);
+
+        if (isComplete && isDestinationComplete) {
+            destination.transfer(layer, destinationX, destinationY, width, height, mBuffer, false);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (mBuffer[i] != NO_VALUE && mOtherBuffer[i] != NO_VALUE) {
+                destination.set(layer, destinationX + i % width, destinationY + i / width, mBuffer[i]);
+            }
+        }
+    }
+
+    /**
+     * Exchanges a rectangle of the given layer with a rectangle of the given view, which may belong to another world.
+     * <p>
+     * Tiles within unloaded chunk(s) of either view are left untouched on both side(s). The rectangles must not
+     * overlap. Every item stack is exchanged as a whole.
+     *
+     * @param layer  the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param other  the view of the other rectangle.
+     * @param otherX the x coordinates of the other rectangle (in world coordinates of the other view).
+     * @param otherY the y coordinates of the other rectangle (in world coordinates of the other view).
+     */
+    public void swap(int layer, int x, int y, int width, int height, WorldView other, int otherX, int otherY) {
+        final int length = prepareBuffers(width, height);
+
+        if (layer == Chunk.LAYER_ITEM) {
+            readStacks(x, y, width, height, mStacks);
+            other.readStacks(otherX, otherY, width, height, mOtherStacks);
+            writeStacks(x, y, width, height, mOtherStacks);
+            other.writeStacks(otherX, otherY, width, height, mStacks);
+            return;
+        }
+
+        final boolean isComplete = transfer(layer, x, y, width, height, mBuffer, true);
+
+        if (other.transfer(layer, otherX, otherY, width, height, mOtherBuffer, true) && isComplete) {
+            transfer(layer, x, y, width, height, mOtherBuffer, false);
+            other.transfer(layer, otherX, otherY, width, height, mBuffer, false);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (mBuffer[i] != NO_VALUE && mOtherBuffer[i] != NO_VALUE) {
+                set(layer, x + i % width, y + i / width, mOtherBuffer[i]);
+                other.set(layer, otherX + i % width, otherY + i / width, mBuffer[i]);
+            }
+        }
+    }
+
+    /**
+     * Collects every item stack within a rectangle (in row-major order).
+     * <p>
+     * Every tile is written as the number of its stack(s), followed by the identifier and the amount of every stack;
+     * a tile within an unloaded chunk is written as -1.
+     *
+     * @param x           the x coordinates of the rectangle (in world coordinates).
+     * @param y           the y coordinates of the rectangle (in world coordinates).
+     * @param width       the width of the rectangle.
+     * @param height      the height of the rectangle.
+     * @param destination the list where every stack is written.
+     */
+    private void readStacks(int x, int y, int width, int height, IntArrayList destination) {
+        destination.clear();
+        mStackDestination = destination;
+
+        for (int row = y; row < y + height; row++) {
+            for (int column = x; column < x + width; column++) {
+                final Chunk chunk = getChunkAt(column, row);
+
+                if (chunk == null) {
+                    destination.add(-1);
+                    continue;
+                }
+
+                final int count = destination.size();
+                destination.add(0);
+                chunk.forEachItem(column & Chunk.CHUNK_MASK, row & Chunk.CHUNK_MASK, 1, 1, mStackProcedure);
+                destination.set(count, (destination.size() - count - 1) >> 1);
+            }
+        }
+        mStackDestination = null;
+    }
+
+    /**
+     * Replaces every item stack within a rectangle with the given stack(s), as collected by
+     * {@linkplain #readStacks(int, int, int, int, IntArrayList)}.
+     * <p>
+     * Tiles within unloaded chunk(s) of either side are skipped, and so are tiles whose stack(s) are unchanged.
+     *
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param stacks the stack(s) of every tile of the rectangle.
+     */
+    private void writeStacks(int x, int y, int width, int height, IntArrayList stacks) {
+        int index = 0;
+
+        for (int row = y; row < y + height; row++) {
+            for (int column = x; column < x + width; column++) {
+                final int count = stacks.get(index++);
+                final int start = index;
+
+                if (count < 0) {
+                    continue;
+                }
+                index += count << 1;
+
+                final Chunk chunk = getChunkAt(column, row);
+
+                if (chunk == null) {
+                    continue;
+                }
+
+                final int relativeX = column & Chunk.CHUNK_MASK;
+                final int relativeY = row & Chunk.CHUNK_MASK;
+
+                mTileStacks.clear();
+                mStackDestination = mTileStacks;
+                chunk.forEachItem(relativeX, relativeY, 1, 1, mStackProcedure);
+                mStackDestination = null;
+
+                if (isEqual(mTileStacks, stacks, start, count << 1)) {
+                    continue;
+                }
+                chunk.setItem(relativeX, relativeY, 0);
+
+                for (int i = start; i < index; i += 2) {
+                    chunk.addItem(relativeX, relativeY, stacks.get(i), stacks.get(i + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whenever the given list is equal to a range of another list.
+     *
+     * @param list   the list to compare.
+     * @param other  the other list.
+     * @param offset the index within the other list of the range.
+     * @param length the length of the range.
+     *
+     * @return true if both are equal, false otherwise.
+     */
+    private static boolean isEqual(IntArrayList list, IntArrayList other, int offset, int length) {
+        if (list.size() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (list.get(i) != other.get(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ensure both buffer(s) of the view can hold the given rectangle.
+     *
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     *
+     * @return the number of tile(s) of the rectangle.
+     */
+    private int prepareBuffers(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Given region is invalid.");
+        }
+
+        final int length = width * height;
+
+        if (mBuffer.length < length) {
+            mBuffer = new int[length];
+            mOtherBuffer = new int[length];
+        }
+        return length;
+    }
+
+    /**
+     * Executes the given operation over a rectangle of the given layer, one chunk at a time.
+     *
+     * @param operation the operation (e.g {@linkplain #OPERATION_FILL}).
+     * @param layer     the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x         the x coordinates of the rectangle (in world coordinates).
+     * @param y         the y coordinates of the rectangle (in world coordinates).
+     * @param width     the width of the rectangle.
+     * @param height    the height of the rectangle.
+     * @param value     the value (or mask) of the operation.
+     */
+    private void edit(int operation, int layer, int x, int y, int width, int height, int value) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Given region is invalid.");
+        }
+
+        for (int top = y; top < y + height; top = (top | Chunk.CHUNK_MASK) + 1) {
+            final int rows = Math.min(y + height, (top | Chunk.CHUNK_MASK) + 1) - top;
+
+            for (int left = x; left < x + width; left = (left | Chunk.CHUNK_MASK) + 1) {
+                final int columns = Math.min(x + width, (left | Chunk.CHUNK_MASK) + 1) - left;
+                final Chunk chunk = getChunkAt(left, top);
+
+                if (chunk == null) {
+                    continue;
+                }
+
+                switch (operation) {
+                    case OPERATION_FILL:
+                        chunk.fill(layer, left & Chunk.CHUNK_MASK, top & Chunk.CHUNK_MASK, columns, rows, value);
+                        break;
+                    case OPERATION_SET_MASK:
+                        chunk.setPropertyMask(left & Chunk.CHUNK_MASK, top & Chunk.CHUNK_MASK, columns, rows, value);
+                        break;
+                    case OPERATION_CLEAR_MASK:
+                        chunk.clearPropertyMask(left & Chunk.CHUNK_MASK, top & Chunk.CHUNK_MASK, columns, rows, value);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies a rectangle between the given layer and the given array, one chunk at a time.
+     *
+     * @param layer  the layer of the chunk (e.g {@linkplain Chunk#LAYER_TILE}).
+     * @param x      the x coordinates of the rectangle (in world coordinates).
+     * @param y      the y coordinates of the rectangle (in world coordinates).
+     * @param width  the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param array  the array of the rectangle (in row-major order).
+     * @param isRead true if the layer is copied into the array, false otherwise.
+     *
+     * @return true if every chunk of the rectangle is loaded, false otherwise.
+     */
+    private boolean transfer(int layer, int x, int y, int width, int height, int[] array, boolean isRead) {
+        if (width < 0 || height < 0 || array.length < width * height) {
+            throw new IllegalArgumentException("Given region does not fit the array.");
+        }
+        boolean isComplete = true;
+
+        for (int top = y; top < y + height; top = (top | Chunk.CHUNK_MASK) + 1) {
+            final int rows = Math.min(y + height, (top | Chunk.CHUNK_MASK) + 1) - top;
+
+            for (int left = x; left < x + width; left = (left | Chunk.CHUNK_MASK) + 1) {
+                final int columns = Math.min(x + width, (left | Chunk.CHUNK_MASK) + 1) - left;
+                final int offset = (top - y) * width + (left - x);
+                final Chunk chunk = getChunkAt(left, top);
+
+                if (chunk != null) {
+                    if (isRead) {
+                        chunk.read(layer, left & Chunk.CHUNK_MASK, top & Chunk.CHUNK_MASK,
+                                columns, rows, array, offset, width);
+                    } else {
+                        chunk.write(layer, left & Chunk.CHUNK_MASK, top & Chunk.CHUNK_MASK,
+                                columns, rows, array, offset, width);
+                    }
+                } else {
+                    isComplete = false;
+
+                    for (int row = 0; isRead && row < rows; row++) {
+                        Arrays.fill(array, offset + row * width, offset + row * width + columns, NO_VALUE);
+                    }
+                }
+            }
+        }
+        return isComplete;
+    }
+}